@@ -0,0 +1,118 @@
+package com.bookstore.jbehave.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thins out per-request log messages before they are formatted. For loggers under one of the
+ * configured prefixes, events below WARN are first sampled (one in {@code sampleEvery} passes)
+ * and then rate limited to {@code maxPerSecond} per logger. Warnings and errors always pass,
+ * as do all events from other loggers. Configured in {@code logback-spring.xml}.
+ */
+public class HotPathLogFilter extends TurboFilter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private List<String> loggers = List.of();
+    private int sampleEvery = 1;
+    private int maxPerSecond = 0;
+
+    private final ConcurrentHashMap<String, LoggerBudget> budgets = new ConcurrentHashMap<>();
+
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Zero or less disables rate limiting.
+     */
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public void start() {
+        if (sampleEvery < 1) {
+            addError("sampleEvery must be at least 1 but was " + sampleEvery);
+            return;
+        }
+        if (maxPerSecond > COUNT_MASK) {
+            addWarn("maxPerSecond capped at " + COUNT_MASK);
+            maxPerSecond = (int) COUNT_MASK;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // A null format is an isXxxEnabled() check, which must not consume the budget
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!isHotPath(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        LoggerBudget budget = budgets.computeIfAbsent(logger.getName(), name -> new LoggerBudget());
+        return budget.tryAcquire(sampleEvery, maxPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isHotPath(String loggerName) {
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Per-logger sampling counter and a fixed one-second window. The window start and count are
+     * packed into one long so that rollover and increment happen in a single CAS.
+     */
+    private static final class LoggerBudget {
+        private final AtomicLong sampled = new AtomicLong();
+        private final AtomicLong window = new AtomicLong();
+
+        boolean tryAcquire(int sampleEvery, int maxPerSecond) {
+            if (sampleEvery > 1 && sampled.getAndIncrement() % sampleEvery != 0) {
+                return false;
+            }
+            if (maxPerSecond <= 0) {
+                return true;
+            }
+            long second = System.currentTimeMillis() / 1000;
+            while (true) {
+                long current = window.get();
+                long currentSecond = current >>> COUNT_BITS;
+                long count = current & COUNT_MASK;
+                long next;
+                if (currentSecond != second) {
+                    next = second << COUNT_BITS | 1;
+                } else if (count >= maxPerSecond) {
+                    return false;
+                } else {
+                    next = current + 1;
+                }
+                if (window.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.bookstore.jbehave.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out read-only connections from a set of replicas, chosen round-robin or by fewest
+ * active connections. A replica whose measured lag exceeds {@code maxStaleness}, or whose lag
+ * cannot be measured, is skipped; when no replica qualifies, or the chosen one fails to
+ * connect, the connection comes from the primary instead.
+ * <p>
+ * Lag is measured every {@code datasource.replicas.lag-check-interval} with the configured
+ * lag query, which must return the replica's lag in milliseconds. Without a lag query every
+ * replica is considered current.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED;
+
+        public static Selection parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long maxStalenessMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter staleFallbacks;
+    private final Counter failedFallbacks;
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicaPools, Selection selection,
+                             Duration maxStaleness, String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.selection = selection;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.replicas = new ArrayList<>(replicaPools.size());
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool, meterRegistry);
+            // Until the first lag check a replica is only trusted when lag is not measured at all
+            replica.lagMillis = this.lagQuery == null ? 0 : Long.MAX_VALUE;
+            replicas.add(replica);
+        }
+        this.primaryReads = routed(meterRegistry, "primary", "no_replica");
+        this.staleFallbacks = routed(meterRegistry, "primary", "stale");
+        this.failedFallbacks = routed(meterRegistry, "primary", "replica_failed");
+        log.info("Routing read-only transactions to {} replicas ({}, max staleness {} ms)",
+                replicas.size(), selection, maxStalenessMillis);
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.read.routing")
+                .description("Read-only connections handed out, by target and reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty()) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        Replica replica = select();
+        if (replica == null) {
+            staleFallbacks.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.pool.getConnection();
+            replica.routed.increment();
+            return connection;
+        } catch (SQLException e) {
+            log.warn("Replica {} unavailable, reading from primary: {}", replica.pool.getPoolName(), e.getMessage());
+            failedFallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Replica pools use the configured credentials, so connections for other credentials come
+     * from the primary.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Picks a replica that is current enough, or null when there is none.
+     */
+    private Replica select() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        Replica chosen = null;
+        int chosenLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lagMillis > maxStalenessMillis) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return replica;
+            }
+            int load = replica.activeConnections();
+            if (load < chosenLoad) {
+                chosen = replica;
+                chosenLoad = load;
+            }
+        }
+        return chosen;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval:1s}")
+    public void checkLag() {
+        if (lagQuery == null) {
+            return;
+        }
+        for (Replica replica : replicas) {
+            long previous = replica.lagMillis;
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(Math.max(1, (int) (maxStalenessMillis / 1000)));
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    replica.lagMillis = result.next() ? Math.max(0, result.getLong(1)) : Long.MAX_VALUE;
+                }
+            } catch (SQLException e) {
+                replica.lagMillis = Long.MAX_VALUE;
+                log.debug("Lag check failed for replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+            }
+            boolean wasCurrent = previous <= maxStalenessMillis;
+            boolean current = replica.lagMillis <= maxStalenessMillis;
+            if (wasCurrent && !current) {
+                log.warn("Replica {} is stale, reading from other replicas or the primary", replica.pool.getPoolName());
+            } else if (!wasCurrent && current) {
+                log.info("Replica {} is current again", replica.pool.getPoolName());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private final Counter routed;
+        private volatile long lagMillis;
+
+        Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.routed = routed(meterRegistry, pool.getPoolName(), "selected");
+            Gauge.builder("datasource.replica.lag", this, replica -> replica.lagMillis == Long.MAX_VALUE
+                            ? Double.NaN : replica.lagMillis / 1000.0)
+                    .description("Last measured replication lag; NaN when it could not be measured")
+                    .baseUnit("seconds")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        int activeConnections() {
+            return pool.getHikariPoolMXBean() == null ? 0 : pool.getHikariPoolMXBean().getActiveConnections();
+        }
+    }
+}
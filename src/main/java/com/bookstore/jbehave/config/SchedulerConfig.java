@@ -0,0 +1,28 @@
+package com.bookstore.jbehave.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    /**
+     * Bounded scheduler for blocking JPA calls made from reactive pipelines.
+     * Sized to the connection pool by default; once the queue is full new work is rejected
+     * instead of piling up behind a slow database. In virtual-thread mode the workers are
+     * virtual threads; the cap still applies so the pool cannot be oversubscribed.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jpaScheduler(@Value("${registration.jpa-scheduler.threads:10}") int threads,
+                                  @Value("${registration.jpa-scheduler.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Schedulers.newBoundedElastic(threads, queueCapacity,
+                    Thread.ofVirtual().name("jpa-", 0).factory(), 60);
+        }
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "jpa");
+    }
+}
@@ -1,16 +1,103 @@
 package com.bookstore.jbehave.config;
 
+import com.bookstore.jbehave.service.JsonArrayDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
+@Slf4j
 public class WebClientConfig {
 
+    /**
+     * Connection pool for outbound calls. Requests beyond {@code max-connections} wait for a
+     * connection; at most {@code pending-acquire-max-count} may wait, each for at most
+     * {@code pending-acquire-timeout}, so a slow upstream fails fast instead of building an
+     * unbounded queue. Idle and long-lived connections are evicted in the background.
+     * Active, idle and pending counts are published as
+     * {@code reactor.netty.connection.provider.*} gauges.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider externalConnectionProvider(
+            @Value("${external.http.max-connections:100}") int maxConnections,
+            @Value("${external.http.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${external.http.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${external.http.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${external.http.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${external.http.evict-in-background:30s}") Duration evictInBackground) {
+        log.info("External connection pool: max {} connections, max {} pending acquires",
+                maxConnections, pendingAcquireMaxCount);
+        return ConnectionProvider.builder("external")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * HTTP/2 is negotiated over TLS (with HTTP/1.1 fallback) for https upstreams and via
+     * cleartext upgrade otherwise. With HTTP/2 one connection carries many concurrent
+     * requests, so fewer pooled connections are needed.
+     * The response timeout defaults to {@code external.api.timeout}; a shorter one would cut
+     * calls off before the API timeout ever applies, so it is rejected at startup.
+     */
+    @Bean
+    public HttpClient externalHttpClient(ConnectionProvider externalConnectionProvider,
+                                         @Value("${external.http.connect-timeout:2s}") Duration connectTimeout,
+                                         @Value("${external.http.response-timeout:${external.api.timeout:10s}}") Duration responseTimeout,
+                                         @Value("${external.api.timeout:10s}") Duration apiTimeout,
+                                         @Value("${external.http.keep-alive:true}") boolean keepAlive,
+                                         @Value("${external.http.http2:false}") boolean http2,
+                                         @Value("${external.api.base-url:https://jsonplaceholder.typicode.com}") String baseUrl) {
+        if (responseTimeout.compareTo(apiTimeout) < 0) {
+            throw new IllegalStateException("external.http.response-timeout (" + responseTimeout
+                    + ") must not be shorter than external.api.timeout (" + apiTimeout + ")");
+        }
+        HttpClient httpClient = HttpClient.create(externalConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, keepAlive)
+                .keepAlive(keepAlive)
+                .responseTimeout(responseTimeout);
+        if (http2) {
+            httpClient = baseUrl.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return httpClient;
+    }
+
+    /**
+     * {@code max-in-memory-size} bounds responses decoded as a whole (single objects). Large
+     * arrays should be streamed through {@link #jsonArrayDecoder}, which only bounds the size
+     * of each element.
+     */
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(HttpClient externalHttpClient,
+                               @Value("${external.http.max-in-memory-size:1MB}") DataSize maxInMemorySize) {
         return WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .clientConnector(new ReactorClientHttpConnector(externalHttpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public JsonArrayDecoder jsonArrayDecoder(ObjectMapper objectMapper,
+                                             @Value("${external.http.max-element-size:256KB}") DataSize maxElementSize) {
+        return new JsonArrayDecoder(objectMapper, (int) maxElementSize.toBytes());
+    }
+}
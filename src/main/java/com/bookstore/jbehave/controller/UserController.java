@@ -1,18 +1,44 @@
 package com.bookstore.jbehave.controller;
 
+import com.bookstore.jbehave.dto.BatchRegistrationResultDto;
+import com.bookstore.jbehave.dto.BatchUpdateResultDto;
+import com.bookstore.jbehave.dto.CacheStatsDto;
+import com.bookstore.jbehave.dto.ExternalImportProgressDto;
+import com.bookstore.jbehave.dto.UserPageDto;
+import com.bookstore.jbehave.dto.UserPatchDto;
 import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.dto.UserVersionDto;
 import com.bookstore.jbehave.model.User;
 import com.bookstore.jbehave.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,37 +48,119 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final HealthEndpoint healthEndpoint;
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_PAGE_SIZE = 1_000;
 
     @PostMapping("/register")
-    public ResponseEntity<String> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
+    public Mono<ResponseEntity<String>> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
         log.info("Received registration request for username: {}", registrationDto.getUsername());
-        
+
+        // Registrations complete asynchronously: password hashing, the external lookup and the
+        // database work all run off the request thread
+        return userService.registerUserAsync(registrationDto)
+                .map(this::toRegistrationResponse)
+                .onErrorResume(e -> {
+                    if (Exceptions.unwrap(e) instanceof RejectedExecutionException) {
+                        log.warn("Registration rejected, hashing pool, scheduler or registration lock saturated: {}", e.getMessage());
+                        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body("Registration service is busy, please retry"));
+                    }
+                    log.error("Error during user registration: {}", e.getMessage(), e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body("Registration failed due to server error"));
+                });
+    }
+
+    private ResponseEntity<String> toRegistrationResponse(String result) {
+        if (result.contains("successfully")) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } else {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
+        }
+    }
+
+    @PostMapping("/register/batch")
+    public ResponseEntity<BatchRegistrationResultDto> registerUsers(@RequestBody List<UserRegistrationDto> registrations) {
+        log.info("Received batch registration request for {} users", registrations.size());
+
+        if (registrations.isEmpty() || registrations.size() > MAX_BATCH_SIZE) {
+            log.warn("Rejected batch registration with {} entries", registrations.size());
+            return ResponseEntity.badRequest().build();
+        }
+
         try {
-            String result = userService.registerUser(registrationDto);
-            
-            if (result.contains("successfully")) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(result);
-            } else {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
-            }
+            return ResponseEntity.ok(userService.registerUsers(registrations));
+        } catch (RejectedExecutionException e) {
+            log.warn("Batch registration rejected, hashing pool saturated: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
-            log.error("Error during user registration: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Registration failed due to server error");
+            log.error("Error during batch registration: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Imports every external user, streaming one NDJSON progress event per committed batch.
+     */
+    @PostMapping(value = "/import/external", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<ExternalImportProgressDto>> importExternalUsers(
+            @RequestParam(defaultValue = "${external.import.batch-size:500}") int batchSize) {
+        log.info("Received external user import request with batch size {}", batchSize);
+
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.importExternalUsers(batchSize));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
         log.info("Fetching user with ID: {}", id);
-        
-        Optional<User> user = userService.findById(id);
-        
-        if (user.isPresent()) {
-            return ResponseEntity.ok(user.get());
-        } else {
+        return conditionalGet(request, userService.findVersionById(id), () -> userService.findById(id));
+    }
+
+    /**
+     * GET with ETag and Last-Modified validators derived from the user's id and updatedAt.
+     * A matching If-None-Match (or, without it, an If-Modified-Since not older than the last
+     * change) is answered with 304 from the version alone; only otherwise is the user loaded.
+     */
+    private ResponseEntity<User> conditionalGet(WebRequest request, Optional<UserVersionDto> version,
+                                                Supplier<Optional<User>> loader) {
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime updatedAt = version.get().getUpdatedAt();
+        if (updatedAt != null && request.checkNotModified(eTag(version.get().getId(), updatedAt), lastModified(updatedAt))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        Optional<User> user = loader.get();
+        if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (user.get().getUpdatedAt() != null) {
+            response.eTag(eTag(user.get().getId(), user.get().getUpdatedAt()))
+                    .lastModified(lastModified(user.get().getUpdatedAt()));
+        }
+        return response.body(user.get());
+    }
+
+    // Microsecond precision matches the stored timestamp, so cached and freshly loaded copies agree
+    private static String eTag(Long id, LocalDateTime updatedAt) {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return id + "-" + Long.toHexString(micros);
+    }
+
+    // Hibernate stores LocalDateTime in the JVM's default time zone
+    private static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
     @GetMapping
@@ -68,30 +176,75 @@ public class UserController {
         }
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<UserPageDto> getUsersPage(@RequestParam(defaultValue = "0") long after,
+                                                    @RequestParam int limit) {
+        log.info("Fetching users after ID: {}, limit: {}", after, limit);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(userService.findUsersAfter(after, limit));
+        } catch (Exception e) {
+            log.error("Error fetching users page: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Streaming all users");
+
+        StreamingResponseBody body = outputStream -> {
+            long streamed = userService.streamAllUsers(user -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(user));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Streamed {} users", streamed);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserPageDto> searchUsers(@RequestParam("q") String query,
+                                                   @RequestParam(defaultValue = "substring") String mode,
+                                                   @RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        log.info("Searching users for: {}, mode: {}", query, mode);
+
+        boolean prefix = "prefix".equalsIgnoreCase(mode);
+        if (query.isBlank() || (!prefix && !"substring".equalsIgnoreCase(mode))
+                || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(userService.searchUsers(query, prefix, after, limit));
+        } catch (Exception e) {
+            log.error("Error searching users: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/username/{username}")
-    public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
+    public ResponseEntity<User> getUserByUsername(@PathVariable String username, WebRequest request) {
         log.info("Fetching user with username: {}", username);
-        
-        Optional<User> user = userService.findByUsername(username);
-        
-        if (user.isPresent()) {
-            return ResponseEntity.ok(user.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return conditionalGet(request, userService.findVersionByUsername(username), () -> userService.findByUsername(username));
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
+    public ResponseEntity<User> getUserByEmail(@PathVariable String email, WebRequest request) {
         log.info("Fetching user with email: {}", email);
-        
-        Optional<User> user = userService.findByEmail(email);
-        
-        if (user.isPresent()) {
-            return ResponseEntity.ok(user.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return conditionalGet(request, userService.findVersionByEmail(email), () -> userService.findByEmail(email));
     }
 
     @PutMapping("/{id}")
@@ -115,6 +268,50 @@ public class UserController {
         }
     }
 
+    /**
+     * Partial update: fields absent from the body are left unchanged.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<String> patchUser(@PathVariable Long id, @Valid @RequestBody UserPatchDto patch) {
+        log.info("Patching user with ID: {}", id);
+
+        try {
+            String result = userService.patchUser(id, patch);
+
+            if (result.contains("successfully") || result.contains("unchanged")) {
+                return ResponseEntity.ok(result);
+            } else if (result.contains("not found")) {
+                return ResponseEntity.notFound().build();
+            } else {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
+            }
+        } catch (Exception e) {
+            log.error("Error during user patch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Update failed due to server error");
+        }
+    }
+
+    /**
+     * Bulk partial update; each item names its user with {@code id} and gets its own result.
+     */
+    @PatchMapping
+    public ResponseEntity<BatchUpdateResultDto> patchUsers(@RequestBody List<UserPatchDto> patches) {
+        log.info("Received bulk patch request for {} users", patches.size());
+
+        if (patches.isEmpty() || patches.size() > MAX_BATCH_SIZE) {
+            log.warn("Rejected bulk patch with {} entries", patches.size());
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(userService.patchUsers(patches));
+        } catch (Exception e) {
+            log.error("Error during bulk patch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteUser(@PathVariable Long id) {
         log.info("Deleting user with ID: {}", id);
@@ -147,6 +344,24 @@ public class UserController {
         }
     }
 
+    @GetMapping("/count/status")
+    public ResponseEntity<Map<User.UserStatus, Long>> getUserCountsByStatus() {
+        log.info("Fetching user counts by status");
+        return ResponseEntity.ok(userService.countUsersByStatus());
+    }
+
+    @GetMapping("/count/status/{status}")
+    public ResponseEntity<Long> getUserCountByStatus(@PathVariable User.UserStatus status) {
+        log.info("Fetching user count for status: {}", status);
+        return ResponseEntity.ok(userService.countUsersByStatus(status));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, CacheStatsDto>> getCacheStats() {
+        log.info("Fetching user cache statistics");
+        return ResponseEntity.ok(userService.getCacheStats());
+    }
+
     @GetMapping("/validate-external/{externalUserId}")
     public Mono<ResponseEntity<Boolean>> validateExternalUser(@PathVariable Long externalUserId) {
         log.info("Validating external user ID: {}", externalUserId);
@@ -156,8 +371,24 @@ public class UserController {
                 .onErrorReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(false));
     }
 
+    /**
+     * Readiness check: healthy only when every component of the actuator {@code readiness}
+     * group (application state, database and external API) is up.
+     */
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
-        return ResponseEntity.ok("User service is healthy");
+        HealthComponent readiness = healthEndpoint.healthForPath("readiness");
+        if (readiness != null && Status.UP.equals(readiness.getStatus())) {
+            return ResponseEntity.ok("User service is healthy");
+        }
+
+        String components = readiness instanceof CompositeHealth composite
+                ? composite.getComponents().entrySet().stream()
+                        .map(entry -> entry.getKey() + "=" + entry.getValue().getStatus())
+                        .collect(Collectors.joining(", "))
+                : "unknown";
+        log.warn("Readiness check failed: {}", components);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("User service is not ready: " + components);
     }
 }
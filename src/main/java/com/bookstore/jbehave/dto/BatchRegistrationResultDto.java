@@ -0,0 +1,35 @@
+package com.bookstore.jbehave.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch registration request.
+ * Items are reported in the same order as they were submitted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRegistrationResultDto {
+    private int total;
+    private int registered;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private String username;
+        private boolean success;
+        private String message;
+        private Long userId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bookstore.jbehave.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk partial update.
+ * Items are reported in the same order as they were submitted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUpdateResultDto {
+    private int total;
+    private int updated;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Long userId;
+        private boolean success;
+        private String message;
+    }
+}
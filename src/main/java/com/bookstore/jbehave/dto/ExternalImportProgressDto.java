@@ -0,0 +1,39 @@
+package com.bookstore.jbehave.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Progress of a bulk import of external users, emitted after every committed batch.
+ * Counts are cumulative; {@code failures} lists only the records that failed in this batch.
+ * The last event has {@code done} set, and {@code error} if the import was aborted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExternalImportProgressDto {
+    private int batch;
+    private long processed;
+    private long imported;
+    private long duplicates;
+    private long failed;
+    private long elapsedMillis;
+    private boolean done;
+    private String error;
+    private List<RecordFailure> failures;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordFailure {
+        private Long externalUserId;
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.jbehave.dto;
+
+import com.bookstore.jbehave.model.User;
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of users for keyset pagination on id.
+ * Pass {@code nextCursor} as {@code after} to fetch the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDto {
+    private List<User> users;
+    private Long nextCursor;
+    private boolean hasMore;
+}
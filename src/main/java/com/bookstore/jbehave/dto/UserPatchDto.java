@@ -0,0 +1,39 @@
+package com.bookstore.jbehave.dto;
+
+import com.bookstore.jbehave.model.User;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Partial update of a user. Null fields are left unchanged; to clear an optional field use PUT.
+ * {@code id} identifies the user in bulk requests and is ignored when the id is in the path.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPatchDto {
+    private Long id;
+
+    @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
+    @Pattern(regexp = "\\S.*", message = "Username cannot be blank")
+    private String username;
+
+    @Email(message = "Email should be valid")
+    @Pattern(regexp = "\\S.*", message = "Email cannot be blank")
+    private String email;
+
+    @Size(max = 50, message = "First name cannot exceed 50 characters")
+    private String firstName;
+
+    @Size(max = 50, message = "Last name cannot exceed 50 characters")
+    private String lastName;
+
+    @Pattern(regexp = "^\\+?[1-9]\\d{1,14}$", message = "Phone number should be valid")
+    private String phoneNumber;
+
+    private User.UserStatus status;
+}
@@ -0,0 +1,21 @@
+package com.bookstore.jbehave.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id and last modification time of a user; enough to answer a conditional request
+ * without loading the whole entity.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserVersionDto {
+    private Long id;
+    private LocalDateTime updatedAt;
+}
@@ -1,13 +1,21 @@
 package com.bookstore.jbehave.repository;
 
+import com.bookstore.jbehave.dto.UserVersionDto;
 import com.bookstore.jbehave.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -26,7 +34,66 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    boolean existsByUsernameAndIdNot(String username, Long id);
+
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    @Query("SELECT new com.bookstore.jbehave.dto.UserVersionDto(u.id, u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<UserVersionDto> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.bookstore.jbehave.dto.UserVersionDto(u.id, u.updatedAt) FROM User u WHERE u.username = :username")
+    Optional<UserVersionDto> findVersionByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.bookstore.jbehave.dto.UserVersionDto(u.id, u.updatedAt) FROM User u WHERE u.email = :email")
+    Optional<UserVersionDto> findVersionByEmail(@Param("email") String email);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderedById();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserKeys> streamAllKeys();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName FROM User u")
+    Stream<UserNames> streamAllNames();
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.status = :status")
     long countByStatus(@Param("status") User.UserStatus status);
+
+    @Query("SELECT u.status AS status, COUNT(u) AS count FROM User u GROUP BY u.status")
+    List<StatusCount> countGroupedByStatus();
+
+    interface UserKeys {
+        String getUsername();
+
+        String getEmail();
+    }
+
+    interface StatusCount {
+        User.UserStatus getStatus();
+
+        long getCount();
+    }
+
+    interface UserNames {
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+    }
 }
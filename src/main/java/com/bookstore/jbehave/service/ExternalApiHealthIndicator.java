@@ -0,0 +1,87 @@
+package com.bookstore.jbehave.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Readiness of the external user API, reported as the {@code externalApi} health component.
+ * While the circuit breaker is open the upstream is reported down without calling it. Otherwise
+ * a HEAD request for a known user probes it directly, bypassing the bulkhead and circuit breaker
+ * so health checks neither consume call permits nor skew failure rates. A probe result is reused
+ * for {@code cache-ttl}, so frequent readiness checks send at most one probe per interval.
+ */
+@Component
+@Slf4j
+public class ExternalApiHealthIndicator implements ReactiveHealthIndicator {
+
+    private final WebClient webClient;
+    private final ExternalCallGuard callGuard;
+    private final String baseUrl;
+    private final Duration probeTimeout;
+    private final Mono<Health> probe;
+
+    public ExternalApiHealthIndicator(WebClient webClient,
+                                      ExternalCallGuard callGuard,
+                                      @Value("${external.api.base-url:https://jsonplaceholder.typicode.com}") String baseUrl,
+                                      @Value("${external.health.timeout:2s}") Duration probeTimeout,
+                                      @Value("${external.health.cache-ttl:10s}") Duration cacheTtl) {
+        this.webClient = webClient;
+        this.callGuard = callGuard;
+        this.baseUrl = baseUrl;
+        this.probeTimeout = probeTimeout;
+        this.probe = Mono.defer(this::probeUpstream).cache(cacheTtl);
+    }
+
+    @Override
+    public Mono<Health> health() {
+        CircuitBreaker.State state = callGuard.circuitState();
+        if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN) {
+            return Mono.just(Health.down()
+                    .withDetail("baseUrl", baseUrl)
+                    .withDetail("circuitBreaker", state)
+                    .build());
+        }
+        return probe.map(health -> Health.status(health.getStatus())
+                .withDetails(health.getDetails())
+                .withDetail("circuitBreaker", state)
+                .build());
+    }
+
+    private Mono<Health> probeUpstream() {
+        long start = System.nanoTime();
+        return webClient.head()
+                .uri(baseUrl + "/users/{id}", 1)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(probeTimeout)
+                .map(response -> Health.up()
+                        .withDetail("baseUrl", baseUrl)
+                        .withDetail("status", response.getStatusCode().value())
+                        .withDetail("latencyMillis", Duration.ofNanos(System.nanoTime() - start).toMillis())
+                        .build())
+                .onErrorResume(error -> {
+                    Health.Builder health;
+                    // A 4xx answer still proves the upstream is reachable and serving requests
+                    if (error instanceof WebClientResponseException response
+                            && response.getStatusCode().is4xxClientError()) {
+                        health = Health.up().withDetail("status", response.getStatusCode().value());
+                    } else {
+                        log.warn("External API health probe failed: {}", error.getMessage());
+                        health = Health.down(error);
+                    }
+                    return Mono.just(health
+                            .withDetail("baseUrl", baseUrl)
+                            .withDetail("latencyMillis", Duration.ofNanos(System.nanoTime() - start).toMillis())
+                            .build());
+                });
+    }
+}
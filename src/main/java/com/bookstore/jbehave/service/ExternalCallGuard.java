@@ -0,0 +1,227 @@
+package com.bookstore.jbehave.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer for calls to the external user API.
+ * <ul>
+ *     <li>A circuit breaker opens when too many recent calls fail or are slow, and then fails
+ *     fast with {@code CallNotPermittedException} until the open period ends.</li>
+ *     <li>A semaphore bulkhead caps concurrent external calls; excess calls are rejected
+ *     immediately with {@code BulkheadFullException}.</li>
+ *     <li>Idempotent calls may be hedged: if the first attempt has not answered within the
+ *     configured percentile of recent latencies, a second attempt is sent and the first
+ *     answer wins.</li>
+ * </ul>
+ * Client errors (4xx) and local rejections by the bulkhead are not upstream failures and do
+ * not count towards the breaker; callers apply their timeout to the call they pass in, so a
+ * timed-out call is recorded as a failure rather than cancelled.
+ */
+@Component
+@Slf4j
+public class ExternalCallGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final Duration hedgeMinDelay;
+    private final LatencyWindow latencies;
+
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public ExternalCallGuard(MeterRegistry meterRegistry,
+                             @Value("${external.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                             @Value("${external.resilience.circuit-breaker.slow-call-duration:2s}") Duration slowCallDuration,
+                             @Value("${external.resilience.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+                             @Value("${external.resilience.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                             @Value("${external.resilience.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                             @Value("${external.resilience.circuit-breaker.open-duration:10s}") Duration openDuration,
+                             @Value("${external.resilience.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+                             @Value("${external.resilience.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls,
+                             @Value("${external.resilience.hedge.enabled:true}") boolean hedgingEnabled,
+                             @Value("${external.resilience.hedge.percentile:0.95}") double hedgePercentile,
+                             @Value("${external.resilience.hedge.min-delay:50ms}") Duration hedgeMinDelay,
+                             @Value("${external.resilience.hedge.min-samples:100}") int hedgeMinSamples) {
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .recordException(ExternalCallGuard::isFailure)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        this.circuitBreaker = circuitBreakers.circuitBreaker("external-api");
+        this.bulkhead = bulkheads.bulkhead("external-api");
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.latencies = new LatencyWindow(1024, hedgeMinSamples);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        this.hedgesSent = Counter.builder("external.hedge.sent")
+                .description("Second attempts sent because the first exceeded the hedge delay")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("external.hedge.won")
+                .description("Hedged attempts that answered before the first attempt")
+                .register(meterRegistry);
+        Gauge.builder("external.hedge.delay", this, guard -> {
+                    Duration delay = guard.hedgeDelay();
+                    return delay == null ? 0 : delay.toMillis();
+                })
+                .description("Current hedge delay in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("External API circuit breaker: {}", event.getStateTransition()));
+    }
+
+    private static boolean isFailure(Throwable error) {
+        // Local rejections say nothing about the upstream's health
+        if (error instanceof BulkheadFullException || error instanceof CallNotPermittedException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+
+    /**
+     * Runs a call through the bulkhead and circuit breaker.
+     */
+    public <T> Mono<T> guard(Mono<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    public <T> Flux<T> guard(Flux<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Runs an idempotent call through the bulkhead and circuit breaker, sending a hedged second
+     * attempt when the first is slower than the hedge delay. Each attempt is guarded on its own,
+     * so hedges are never sent while the breaker is open or the bulkhead is full.
+     */
+    public <T> Mono<T> guardHedged(Supplier<Mono<T>> call) {
+        Supplier<Mono<T>> attempt = () -> Mono.defer(() -> {
+            long start = System.nanoTime();
+            return guard(call.get()).doOnSuccess(value -> latencies.record(System.nanoTime() - start));
+        });
+        Duration delay = hedgeDelay();
+        if (!hedgingEnabled || delay == null) {
+            return attempt.get();
+        }
+
+        // The first attempt is shared so it keeps running while racing the hedge
+        Mono<T> first = attempt.get().cache();
+        return first
+                .timeout(delay, Mono.defer(() -> {
+                    hedgesSent.increment();
+                    return Mono.firstWithValue(first, attempt.get().doOnNext(value -> hedgesWon.increment()));
+                }))
+                .onErrorMap(NoSuchElementException.class,
+                        error -> error.getSuppressed().length > 0 ? error.getSuppressed()[0] : error);
+    }
+
+    /**
+     * The configured percentile of recent successful latencies, or null until enough samples exist.
+     */
+    Duration hedgeDelay() {
+        long nanos = latencies.percentile(hedgePercentile);
+        if (nanos < 0) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(nanos, hedgeMinDelay.toNanos()));
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Ring buffer of the most recent latencies. Percentiles are computed from a sorted copy
+     * at most once per refresh interval, so hedging decisions stay cheap on the hot path.
+     */
+    static final class LatencyWindow {
+        private static final long REFRESH_NANOS = Duration.ofSeconds(1).toNanos();
+
+        private final AtomicLongArray samples;
+        private final AtomicLong next = new AtomicLong();
+        private final int minSamples;
+
+        private volatile long[] sorted = new long[0];
+        private volatile long sortedAt;
+
+        LatencyWindow(int capacity, int minSamples) {
+            this.samples = new AtomicLongArray(capacity);
+            this.minSamples = Math.max(1, minSamples);
+            this.sortedAt = System.nanoTime() - REFRESH_NANOS - 1;
+        }
+
+        void record(long nanos) {
+            samples.set((int) (next.getAndIncrement() % samples.length()), nanos);
+        }
+
+        long percentile(double percentile) {
+            long now = System.nanoTime();
+            long[] snapshot = sorted;
+            if (now - sortedAt > REFRESH_NANOS) {
+                int count = (int) Math.min(next.get(), samples.length());
+                snapshot = new long[count];
+                for (int i = 0; i < count; i++) {
+                    snapshot[i] = samples.get(i);
+                }
+                Arrays.sort(snapshot);
+                sorted = snapshot;
+                sortedAt = now;
+            }
+            if (snapshot.length < minSamples) {
+                return -1;
+            }
+            int index = (int) Math.ceil(percentile * snapshot.length) - 1;
+            return snapshot[Math.max(0, Math.min(index, snapshot.length - 1))];
+        }
+    }
+}
@@ -1,66 +1,203 @@
 package com.bookstore.jbehave.service;
 
 import com.bookstore.jbehave.dto.ExternalUserDto;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.timeout.ReadTimeoutException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for integrating with JSONPlaceholder API
  * https://jsonplaceholder.typicode.com/
+ * Every call goes through {@link ExternalCallGuard}; lookups by id are hedged.
+ * Each upstream call is timed as {@code external.requests}, tagged with the operation,
+ * the HTTP status (if any) and an outcome that separates timeouts and rejections from errors.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ExternalUserService {
 
     private final WebClient webClient;
+    private final ExternalCallGuard callGuard;
+    private final JsonArrayDecoder jsonArrayDecoder;
+    private final MeterRegistry meterRegistry;
+    private final String baseUrl;
+    private final Duration timeout;
 
-    private static final String BASE_URL = "https://jsonplaceholder.typicode.com";
-    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // Each entry is a cached Mono: concurrent subscribers for one id share a single
+    // in-flight request, and the resolved value (or failure) is replayed until it expires.
+    private final Cache<Long, Mono<ExternalUserDto>> userCache;
+    private final Cache<Long, Mono<Boolean>> existsCache;
+    private final Duration cacheTtl;
+    private final Duration errorTtl;
+
+    public ExternalUserService(WebClient webClient,
+                               ExternalCallGuard callGuard,
+                               JsonArrayDecoder jsonArrayDecoder,
+                               MeterRegistry meterRegistry,
+                               @Value("${external.api.base-url:https://jsonplaceholder.typicode.com}") String baseUrl,
+                               @Value("${external.api.timeout:10s}") Duration timeout,
+                               @Value("${external.cache.max-size:1000}") long maxSize,
+                               @Value("${external.cache.ttl:10m}") Duration cacheTtl,
+                               @Value("${external.cache.error-ttl:5s}") Duration errorTtl) {
+        this.webClient = webClient;
+        this.callGuard = callGuard;
+        this.jsonArrayDecoder = jsonArrayDecoder;
+        this.meterRegistry = meterRegistry;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.cacheTtl = cacheTtl;
+        this.errorTtl = errorTtl;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.existsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
 
     public Mono<ExternalUserDto> getUserById(Long id) {
+        return userCache.get(id, this::coalescedFetchUser);
+    }
+
+    private Mono<ExternalUserDto> coalescedFetchUser(Long id) {
+        return fetchUser(id).cache(user -> cacheTtl, error -> errorTtl, () -> errorTtl);
+    }
+
+    private Mono<ExternalUserDto> fetchUser(Long id) {
         log.info("Fetching external user with ID: {}", id);
-        return webClient.get()
-                .uri(BASE_URL + "/users/{id}", id)
-                .retrieve()
-                .bodyToMono(ExternalUserDto.class)
-                .timeout(TIMEOUT)
+        return timed("get_user", callGuard.guardHedged(() -> webClient.get()
+                        .uri(baseUrl + "/users/{id}", id)
+                        .retrieve()
+                        .bodyToMono(ExternalUserDto.class)
+                        .timeout(timeout)))
                 .doOnSuccess(user -> log.info("Successfully fetched external user: {}", user.getUsername()))
                 .doOnError(error -> log.error("Error fetching external user with ID {}: {}", id, error.getMessage()));
     }
 
+    /**
+     * Streams all users, decoding the response array element by element as it arrives,
+     * so the list can be arbitrarily large. Only the request up to the response headers goes
+     * through the call guard: a long import would otherwise hold a bulkhead permit throughout
+     * and be recorded as a slow call, letting a few large imports open the breaker for every
+     * lookup. While streaming, the timeout applies to the gap between users.
+     */
     public Flux<ExternalUserDto> getAllUsers() {
         log.info("Fetching all external users");
-        return webClient.get()
-                .uri(BASE_URL + "/users")
-                .retrieve()
-                .bodyToFlux(ExternalUserDto.class)
-                .timeout(TIMEOUT)
+        return timed("get_all_users", callGuard.guard(webClient.get()
+                                .uri(baseUrl + "/users")
+                                .retrieve()
+                                .toEntityFlux(DataBuffer.class)
+                                .timeout(timeout))
+                        .flatMapMany(response -> jsonArrayDecoder.decode(response.getBody(), ExternalUserDto.class)
+                                .timeout(timeout)))
                 .doOnComplete(() -> log.info("Successfully fetched all external users"))
                 .doOnError(error -> log.error("Error fetching external users: {}", error.getMessage()));
     }
 
     public Mono<ExternalUserDto> createUser(ExternalUserDto userDto) {
         log.info("Creating external user: {}", userDto.getUsername());
-        return webClient.post()
-                .uri(BASE_URL + "/users")
-                .bodyValue(userDto)
-                .retrieve()
-                .bodyToMono(ExternalUserDto.class)
-                .timeout(TIMEOUT)
+        return timed("create_user", callGuard.guard(webClient.post()
+                        .uri(baseUrl + "/users")
+                        .bodyValue(userDto)
+                        .retrieve()
+                        .bodyToMono(ExternalUserDto.class)
+                        .timeout(timeout)))
                 .doOnSuccess(user -> log.info("Successfully created external user with ID: {}", user.getId()))
                 .doOnError(error -> log.error("Error creating external user: {}", error.getMessage()));
     }
 
+    /**
+     * Checks existence without downloading the user. A user that is already cached answers
+     * immediately; otherwise a coalesced HEAD request is issued and its outcome cached.
+     */
     public Mono<Boolean> userExists(Long id) {
-        return getUserById(id)
-                .map(user -> true)
+        Mono<ExternalUserDto> cachedUser = userCache.getIfPresent(id);
+        if (cachedUser != null) {
+            return cachedUser
+                    .map(user -> true)
+                    .onErrorReturn(false);
+        }
+        return existsCache.get(id, this::coalescedCheckExists)
                 .onErrorReturn(false);
     }
-}
\ No newline at end of file
+
+    private Mono<Boolean> coalescedCheckExists(Long id) {
+        return checkExists(id).cache(exists -> exists ? cacheTtl : errorTtl, error -> errorTtl, () -> errorTtl);
+    }
+
+    private Mono<Boolean> checkExists(Long id) {
+        log.debug("Checking external user existence for ID: {}", id);
+        return timed("user_exists", callGuard.guardHedged(() -> webClient.head()
+                        .uri(baseUrl + "/users/{id}", id)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .map(response -> true)
+                        .timeout(timeout)))
+                .onErrorResume(WebClientResponseException.NotFound.class, error -> Mono.just(false))
+                .doOnError(error -> log.error("Error checking external user with ID {}: {}", id, error.getMessage()));
+    }
+
+    private <T> Mono<T> timed(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(value -> sample.stop(requestTimer(operation, null)))
+                    .doOnError(error -> sample.stop(requestTimer(operation, error)))
+                    .doOnCancel(() -> sample.stop(requestTimer(operation, "NONE", "CANCELLED")));
+        });
+    }
+
+    private <T> Flux<T> timed(String operation, Flux<T> call) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnComplete(() -> sample.stop(requestTimer(operation, null)))
+                    .doOnError(error -> sample.stop(requestTimer(operation, error)))
+                    .doOnCancel(() -> sample.stop(requestTimer(operation, "NONE", "CANCELLED")));
+        });
+    }
+
+    private Timer requestTimer(String operation, Throwable error) {
+        if (error == null) {
+            return requestTimer(operation, "2xx", "SUCCESS");
+        }
+        if (error instanceof WebClientResponseException response) {
+            String outcome = response.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+            return requestTimer(operation, String.valueOf(response.getStatusCode().value()), outcome);
+        }
+        // Either the overall call timeout or the connector's response timeout
+        if (error instanceof TimeoutException || error.getCause() instanceof ReadTimeoutException) {
+            return requestTimer(operation, "NONE", "TIMEOUT");
+        }
+        if (error instanceof CallNotPermittedException || error instanceof BulkheadFullException) {
+            return requestTimer(operation, "NONE", "REJECTED");
+        }
+        return requestTimer(operation, "NONE", "ERROR");
+    }
+
+    private Timer requestTimer(String operation, String status, String outcome) {
+        return Timer.builder("external.requests")
+                .description("Calls to the external user API; a hedged lookup is timed once")
+                .tag("operation", operation)
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.bookstore.jbehave.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a top-level JSON array element by element as its bytes arrive, using Jackson's
+ * non-blocking parser. Only the element currently being parsed is held in memory, and only one
+ * network buffer is requested ahead, so arrays of any total size decode in constant memory.
+ * A single element larger than {@code maxElementBytes} fails the stream.
+ */
+public class JsonArrayDecoder {
+
+    private final ObjectMapper objectMapper;
+    private final int maxElementBytes;
+
+    public JsonArrayDecoder(ObjectMapper objectMapper, int maxElementBytes) {
+        this.objectMapper = objectMapper;
+        this.maxElementBytes = maxElementBytes;
+    }
+
+    public <T> Flux<T> decode(Flux<DataBuffer> body, Class<T> elementType) {
+        return Flux.defer(() -> {
+            ArrayState<T> state = new ArrayState<>(elementType);
+            return body.concatMapIterable(state::feed, 1)
+                    .concatWith(Mono.fromRunnable(state::finish))
+                    .doFinally(signal -> state.close());
+        });
+    }
+
+    private final class ArrayState<T> {
+        private final Class<T> elementType;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        private TokenBuffer element;
+        private int depth;
+        private boolean arrayStarted;
+        private boolean arrayEnded;
+        private long bytesFed;
+        private long elementStart;
+
+        ArrayState(Class<T> elementType) {
+            this.elementType = elementType;
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new DecodingException("Could not create JSON parser", e);
+            }
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<T> feed(DataBuffer buffer) {
+            byte[] bytes;
+            try {
+                bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+                bytesFed += bytes.length;
+                return drain();
+            } catch (IOException e) {
+                throw new DecodingException("Invalid JSON array: " + e.getMessage(), e);
+            }
+        }
+
+        void finish() {
+            feeder.endOfInput();
+            try {
+                drain();
+            } catch (IOException e) {
+                throw new DecodingException("Invalid JSON array: " + e.getMessage(), e);
+            }
+            if (!arrayEnded) {
+                throw new DecodingException("JSON array ended before its closing bracket");
+            }
+        }
+
+        private List<T> drain() throws IOException {
+            List<T> decoded = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (!arrayStarted) {
+                    if (token != JsonToken.START_ARRAY) {
+                        throw new DecodingException("Expected a top-level JSON array but found " + token);
+                    }
+                    arrayStarted = true;
+                    continue;
+                }
+                if (depth == 0 && token == JsonToken.END_ARRAY) {
+                    arrayEnded = true;
+                    continue;
+                }
+
+                if (element == null) {
+                    element = new TokenBuffer(objectMapper, false);
+                    elementStart = parser.currentTokenLocation().getByteOffset();
+                }
+                element.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+
+                if (parser.currentLocation().getByteOffset() - elementStart > maxElementBytes) {
+                    throw new DataBufferLimitException("JSON array element exceeds " + maxElementBytes + " bytes");
+                }
+                if (depth == 0) {
+                    try (JsonParser elementParser = element.asParser()) {
+                        decoded.add(objectMapper.readValue(elementParser, elementType));
+                    }
+                    element = null;
+                }
+            }
+            if (element != null && bytesFed - elementStart > maxElementBytes) {
+                throw new DataBufferLimitException("JSON array element exceeds " + maxElementBytes + " bytes");
+            }
+            return decoded;
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // Nothing to release beyond the parser's own buffers
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.bookstore.jbehave.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt password hashing on a dedicated pool with at most one thread per core, so hashing
+ * never competes with more than that share of the CPU and request threads never run the hash
+ * themselves. Hashes wait in a bounded queue; once it is full new hashes are rejected with
+ * {@link RejectedExecutionException} instead of building up latency.
+ * Pool activity is published as {@code executor.*} metrics named {@code password-hash}.
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+    private final ExecutorService executor;
+    private final int threads;
+    private final Counter rejected;
+
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${password.hashing.cost:10}") int cost,
+                          @Value("${password.hashing.threads:0}") int threads,
+                          @Value("${password.hashing.queue-capacity:256}") int queueCapacity) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.encoder = new BCryptPasswordEncoder(cost);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password-hash");
+        this.rejected = Counter.builder("password.hash.rejected")
+                .description("Password hashes rejected because the hashing queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing: BCrypt cost {}, {} threads, queue capacity {}", cost, this.threads, queueCapacity);
+    }
+
+    /**
+     * Hashes on the pool and waits for the result. Fails with {@link RejectedExecutionException}
+     * when the pool is saturated.
+     */
+    public String hash(String rawPassword) {
+        return await(submit(rawPassword));
+    }
+
+    /**
+     * Hashes on the pool without blocking the subscriber's thread.
+     */
+    public Mono<String> hashAsync(String rawPassword) {
+        return Mono.defer(() -> Mono.fromFuture(CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), executor)))
+                .doOnError(RejectedExecutionException.class, error -> rejected.increment());
+    }
+
+    /**
+     * Hashes many passwords in parallel, returning the hashes in input order. At most one hash
+     * per pool thread is queued ahead, so a large batch does not crowd single registrations
+     * out of the queue.
+     */
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<Future<String>> pending = new ArrayList<>(rawPasswords.size());
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        try {
+            for (String rawPassword : rawPasswords) {
+                if (pending.size() - hashes.size() >= threads) {
+                    hashes.add(await(pending.get(hashes.size())));
+                }
+                pending.add(submit(rawPassword));
+            }
+            while (hashes.size() < pending.size()) {
+                hashes.add(await(pending.get(hashes.size())));
+            }
+            return hashes;
+        } catch (RuntimeException e) {
+            pending.forEach(future -> future.cancel(false));
+            throw e;
+        }
+    }
+
+    private Future<String> submit(String rawPassword) {
+        try {
+            return executor.submit(() -> encoder.encode(rawPassword));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,156 @@
+package com.bookstore.jbehave.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Serializes registrations that compete for the same username or email within this process.
+ * Usernames and emails are normalized and hashed onto a fixed array of lock stripes, so only
+ * registrations sharing a stripe wait for each other and unrelated ones proceed in parallel.
+ * Stripes are held until the registering transaction completes, so the next holder already
+ * sees the winner's row. Usernames and emails registered recently are also remembered
+ * exactly, which lets a losing registration answer "already exists" without a query.
+ * The database unique constraints remain the guard across processes.
+ */
+@Component
+@Slf4j
+public class RegistrationLocks {
+
+    private final ReentrantLock[] stripes;
+    private final Duration timeout;
+    private final Cache<String, Boolean> recentUsernames;
+    private final Cache<String, Boolean> recentEmails;
+
+    public RegistrationLocks(@Value("${registration.lock.stripes:1024}") int stripes,
+                             @Value("${registration.lock.timeout:5s}") Duration timeout,
+                             @Value("${registration.lock.recent-ttl:1m}") Duration recentTtl) {
+        // A power of two lets the stripe be picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeout = timeout;
+        this.recentUsernames = Caffeine.newBuilder().expireAfterWrite(recentTtl).build();
+        this.recentEmails = Caffeine.newBuilder().expireAfterWrite(recentTtl).build();
+        log.info("Registration locks configured with {} stripes", size);
+    }
+
+    /**
+     * Returns the rejection message if the username or email was registered recently in this
+     * process, otherwise null. A null answer does not mean the values are free.
+     */
+    public String recentConflict(String username, String email) {
+        if (username != null && recentUsernames.getIfPresent(username) != null) {
+            return "Username already exists";
+        }
+        if (email != null && recentEmails.getIfPresent(email) != null) {
+            return "Email already exists";
+        }
+        return null;
+    }
+
+    /**
+     * Locks the stripes of the username and email until the current transaction completes.
+     * Stripes are always taken in index order, so registrations cannot deadlock on them.
+     * Fails with RejectedExecutionException if the stripes are not free within the timeout.
+     */
+    public void lockUntilCompletion(String username, String email) {
+        lockAllUntilCompletion(Collections.singletonList(username), Collections.singletonList(email));
+    }
+
+    /**
+     * Locks the stripes of all the usernames and emails until the current transaction
+     * completes, for registering several users at once.
+     */
+    public void lockAllUntilCompletion(Collection<String> usernames, Collection<String> emails) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Registration locks must be taken inside a transaction");
+        }
+        int[] indexes = Stream.concat(
+                        usernames.stream().map(username -> stripe("u:" + normalize(username))),
+                        emails.stream().map(email -> stripe("e:" + normalize(email))))
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        List<ReentrantLock> held = new ArrayList<>(indexes.length);
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                held.add(stripes[index]);
+            }
+        } catch (RuntimeException e) {
+            held.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+
+        // Completion callbacks run on the thread that took the locks, which is required to unlock them
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    /**
+     * Remembers a username and email once the registering transaction commits. Commit callbacks
+     * run before the stripes are released, so waiting registrations see the values.
+     */
+    public void registered(String username, String email) {
+        TransactionCallbacks.afterCommit(() -> {
+            recentUsernames.put(username, Boolean.TRUE);
+            recentEmails.put(email, Boolean.TRUE);
+        });
+    }
+
+    /**
+     * Forgets a username and email that were freed by a deletion or rename.
+     */
+    public void released(String username, String email) {
+        if (username != null) {
+            recentUsernames.invalidate(username);
+        }
+        if (email != null) {
+            recentEmails.invalidate(email);
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Timed out waiting for a registration lock");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a registration lock", e);
+        }
+    }
+
+    private int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
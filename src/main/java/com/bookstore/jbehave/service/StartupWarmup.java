@@ -0,0 +1,74 @@
+package com.bookstore.jbehave.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the in-memory views of the users table once the application has started: the
+ * membership index, the materialized counters and the name search index. Each of them answers
+ * correctly before it is loaded (every value might be present, counts fall back to queries,
+ * searches wait), so with {@code startup.warmup.async=true} they are loaded on a background
+ * thread and the application reports ready without waiting for full-table scans.
+ */
+@Component
+@Slf4j
+public class StartupWarmup {
+
+    private final UserMembershipIndex membershipIndex;
+    private final UserCounters userCounters;
+    private final UserSearchIndex searchIndex;
+    private final boolean async;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    public StartupWarmup(UserMembershipIndex membershipIndex,
+                         UserCounters userCounters,
+                         UserSearchIndex searchIndex,
+                         @Value("${startup.warmup.async:false}") boolean async) {
+        this.membershipIndex = membershipIndex;
+        this.userCounters = userCounters;
+        this.searchIndex = searchIndex;
+        this.async = async;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!async) {
+            load();
+            return;
+        }
+        Thread.ofPlatform().name("startup-warmup").daemon().start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Startup warmup failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Completes once every view has been loaded, or exceptionally if loading failed.
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        try {
+            // Cheapest and most valuable first: the membership index saves a query per registration
+            membershipIndex.rebuild();
+            userCounters.reconcile();
+            searchIndex.rebuild();
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+            throw e;
+        }
+        completion.complete(null);
+        log.info("Startup warmup finished in {} ms", System.currentTimeMillis() - start);
+    }
+}
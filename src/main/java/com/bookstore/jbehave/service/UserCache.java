@@ -0,0 +1,179 @@
+package com.bookstore.jbehave.service;
+
+import com.bookstore.jbehave.dto.CacheStatsDto;
+import com.bookstore.jbehave.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache in front of the user lookups by id, username and email.
+ * Only found users are cached, so a newly registered user never hides behind a cached miss.
+ * Cached instances are detached entities and must be treated as read-only.
+ * <p>
+ * A loaded user is not cached when it was invalidated after the load began: the row may have
+ * been read before the write committed. With read replicas enabled the same applies to users
+ * invalidated within the replica staleness bound before the load, since a replica may still
+ * serve the row as it was before the write.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private static final Duration INVALIDATION_WINDOW = Duration.ofMinutes(1);
+
+    private final Cache<Long, User> byId;
+    private final Cache<String, User> byUsername;
+    private final Cache<String, User> byEmail;
+    // When each user id was last invalidated, as System.nanoTime()
+    private final Cache<Long, Long> invalidations;
+    private final long stalenessNanos;
+
+    public UserCache(@Value("${user.cache.max-size:10000}") long maxSize,
+                     @Value("${user.cache.ttl:5m}") Duration ttl,
+                     @Value("${datasource.replicas.enabled:false}") boolean replicasEnabled,
+                     @Value("${datasource.replicas.max-staleness:1s}") Duration maxStaleness,
+                     @Value("${datasource.replicas.lag-check-interval:1s}") Duration lagCheckInterval) {
+        this.byId = newCache(maxSize, ttl);
+        this.byUsername = newCache(maxSize, ttl);
+        this.byEmail = newCache(maxSize, ttl);
+        // Lag is only measured every check interval, so a replica can fall behind by that much more
+        Duration staleness = replicasEnabled ? maxStaleness.plus(lagCheckInterval) : Duration.ZERO;
+        this.stalenessNanos = staleness.toNanos();
+        // Kept long enough to outlast any load in flight; a load taking longer may still cache a stale row
+        this.invalidations = Caffeine.newBuilder()
+                .expireAfterWrite(staleness.plus(INVALIDATION_WINDOW))
+                .build();
+        log.info("User cache configured with max size {} and TTL {}", maxSize, ttl);
+    }
+
+    private static <K> Cache<K, User> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<User> findById(Long id, Supplier<Optional<User>> loader) {
+        return lookup(byId, id, loader);
+    }
+
+    public Optional<User> findByUsername(String username, Supplier<Optional<User>> loader) {
+        return lookup(byUsername, username, loader);
+    }
+
+    public Optional<User> findByEmail(String email, Supplier<Optional<User>> loader) {
+        return lookup(byEmail, email, loader);
+    }
+
+    /**
+     * Cached users only; a miss does not load anything.
+     */
+    public Optional<User> cachedById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    public Optional<User> cachedByUsername(String username) {
+        return username == null ? Optional.empty() : Optional.ofNullable(byUsername.getIfPresent(username));
+    }
+
+    public Optional<User> cachedByEmail(String email) {
+        return email == null ? Optional.empty() : Optional.ofNullable(byEmail.getIfPresent(email));
+    }
+
+    private <K> Optional<User> lookup(Cache<K, User> cache, K key, Supplier<Optional<User>> loader) {
+        if (key == null) {
+            return loader.get();
+        }
+        User cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadStarted = System.nanoTime();
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(user -> put(user, loadStarted));
+        return loaded;
+    }
+
+    /**
+     * Caches the user, then takes it out again if it was invalidated since the load could have
+     * read a stale row. Checking after the put means an invalidation racing with it either
+     * evicts the entry itself or is seen by the check.
+     */
+    private void put(User user, long loadStarted) {
+        byId.put(user.getId(), user);
+        byUsername.put(user.getUsername(), user);
+        byEmail.put(user.getEmail(), user);
+        Long invalidated = invalidations.getIfPresent(user.getId());
+        if (invalidated != null && invalidated - (loadStarted - stalenessNanos) >= 0) {
+            remove(user.getId(), user.getUsername(), user.getEmail());
+        }
+    }
+
+    /**
+     * Evicts every key the user can be looked up by. Eviction happens immediately and again
+     * after the surrounding transaction commits, and a reader that loaded the row before the
+     * commit does not cache it afterwards.
+     */
+    public void invalidate(Long id, String username, String email) {
+        evict(id, username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionCallbacks.afterCommit(() -> evict(id, username, email));
+        }
+    }
+
+    private void evict(Long id, String username, String email) {
+        if (id != null) {
+            invalidations.put(id, System.nanoTime());
+        }
+        remove(id, username, email);
+    }
+
+    private void remove(Long id, String username, String email) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    public void clear() {
+        byId.invalidateAll();
+        byUsername.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    public Map<String, CacheStatsDto> stats() {
+        Map<String, CacheStatsDto> stats = new LinkedHashMap<>();
+        stats.put("byId", toDto(byId));
+        stats.put("byUsername", toDto(byUsername));
+        stats.put("byEmail", toDto(byEmail));
+        return stats;
+    }
+
+    private static CacheStatsDto toDto(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return CacheStatsDto.builder()
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
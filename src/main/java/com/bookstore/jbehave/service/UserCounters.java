@@ -0,0 +1,117 @@
+package com.bookstore.jbehave.service;
+
+import com.bookstore.jbehave.model.User;
+import com.bookstore.jbehave.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Materialized user counts, total and per {@link User.UserStatus}, kept current by every write
+ * so polling them never runs a {@code COUNT(*)}. Writes adjust striped {@link LongAdder}s after
+ * commit; a periodic reconciliation resets them from the database to correct any drift.
+ */
+@Component
+@Slf4j
+public class UserCounters {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Fallback counts before the first reconciliation may be served by a read replica
+    private final TransactionTemplate readOnlyTransactions;
+
+    private final Map<User.UserStatus, LongAdder> byStatus = new EnumMap<>(User.UserStatus.class);
+    private volatile boolean initialized;
+
+    public UserCounters(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactions = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactions.setReadOnly(true);
+        for (User.UserStatus status : User.UserStatus.values()) {
+            byStatus.put(status, new LongAdder());
+        }
+    }
+
+    public void userAdded(User.UserStatus status) {
+        adjust(status, 1);
+    }
+
+    public void usersAdded(User.UserStatus status, int count) {
+        adjust(status, count);
+    }
+
+    public void userRemoved(User.UserStatus status) {
+        adjust(status, -1);
+    }
+
+    public void statusChanged(User.UserStatus oldStatus, User.UserStatus newStatus) {
+        if (oldStatus != newStatus) {
+            adjust(oldStatus, -1);
+            adjust(newStatus, 1);
+        }
+    }
+
+    private void adjust(User.UserStatus status, long delta) {
+        User.UserStatus effective = status != null ? status : User.UserStatus.ACTIVE;
+        TransactionCallbacks.afterCommit(() -> byStatus.get(effective).add(delta));
+    }
+
+    public long total() {
+        if (!initialized) {
+            return readOnlyTransactions.execute(tx -> userRepository.count());
+        }
+        long total = 0;
+        for (LongAdder adder : byStatus.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long count(User.UserStatus status) {
+        if (!initialized) {
+            return readOnlyTransactions.execute(tx -> userRepository.countByStatus(status));
+        }
+        return byStatus.get(status).sum();
+    }
+
+    public Map<User.UserStatus, Long> countsByStatus() {
+        Map<User.UserStatus, Long> counts = new EnumMap<>(User.UserStatus.class);
+        for (User.UserStatus status : User.UserStatus.values()) {
+            counts.put(status, count(status));
+        }
+        return counts;
+    }
+
+    /**
+     * Resets the counters from a single grouped count. Writes committing while the query runs
+     * can leave a small drift, which the next reconciliation corrects.
+     */
+    @Scheduled(fixedDelayString = "${user.counters.reconcile-interval:60s}",
+            initialDelayString = "${user.counters.reconcile-interval:60s}")
+    public void reconcile() {
+        List<UserRepository.StatusCount> counts = transactionTemplate.execute(status -> userRepository.countGroupedByStatus());
+
+        Map<User.UserStatus, Long> fresh = new EnumMap<>(User.UserStatus.class);
+        for (UserRepository.StatusCount count : counts) {
+            fresh.put(count.getStatus(), count.getCount());
+        }
+        for (Map.Entry<User.UserStatus, LongAdder> entry : byStatus.entrySet()) {
+            long expected = fresh.getOrDefault(entry.getKey(), 0L);
+            long drift = expected - entry.getValue().sum();
+            if (drift != 0) {
+                if (initialized) {
+                    log.warn("User counter for {} drifted by {}, reconciling", entry.getKey(), drift);
+                }
+                entry.getValue().add(drift);
+            }
+        }
+        initialized = true;
+    }
+}
@@ -0,0 +1,220 @@
+package com.bookstore.jbehave.service;
+
+import com.bookstore.jbehave.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filters over every registered username and email.
+ * A negative answer is definite and lets callers skip the uniqueness query entirely;
+ * a positive answer may be a false positive and must be confirmed against the database,
+ * whose unique constraints stay the final authority.
+ * Removals are not supported, so deleted or renamed values only cost an extra query.
+ */
+@Component
+@Slf4j
+public class UserMembershipIndex {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+
+    private volatile Filters current;
+    // Filters being rebuilt; writes are mirrored into them so nothing is lost during the swap
+    private volatile Filters building;
+    // Values added by transactions that have not completed yet
+    private final Set<PendingAdd> pending = ConcurrentHashMap.newKeySet();
+
+    public UserMembershipIndex(UserRepository userRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${user.membership.expected-users:1000000}") long expectedUsers,
+                               @Value("${user.membership.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Filters filters = new Filters(expectedUsers, falsePositiveRate);
+        building = filters;
+        // Writers that added before building was published but have not committed yet may be
+        // missing from the scan's snapshot; they are still pending, so copy them in
+        for (PendingAdd add : pending) {
+            filters.add(add.username, add.email);
+        }
+
+        Long loaded = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<UserRepository.UserKeys> keys = userRepository.streamAllKeys()) {
+                for (UserRepository.UserKeys key : (Iterable<UserRepository.UserKeys>) keys::iterator) {
+                    filters.add(key.getUsername(), key.getEmail());
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        current = filters;
+        building = null;
+        log.info("Username/email membership index rebuilt with {} users in {} ms",
+                loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Returns false only if no user has ever been registered with this username.
+     * Before the first rebuild completes every value is reported as possibly present.
+     */
+    public boolean mightContainUsername(String username) {
+        Filters filters = current;
+        return filters == null || filters.usernames.mightContain(username);
+    }
+
+    /**
+     * Returns false only if no user has ever been registered with this email.
+     * Before the first rebuild completes every value is reported as possibly present.
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return filters == null || filters.emails.mightContain(email);
+    }
+
+    /**
+     * Records a username and email on every write; must be called before the writing
+     * transaction commits so no concurrent check can observe a false negative.
+     * Until that transaction completes the values are also kept as pending, so a rebuild
+     * starting in between cannot miss them.
+     */
+    public void add(String username, String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingAdd add = new PendingAdd(username, email);
+            pending.add(add);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    pending.remove(add);
+                }
+            });
+        }
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, email);
+        }
+        Filters rebuilding = building;
+        if (rebuilding != null) {
+            rebuilding.add(username, email);
+        }
+    }
+
+    // Identity equality, so the same values added by two transactions are tracked separately
+    private static final class PendingAdd {
+        private final String username;
+        private final String email;
+
+        private PendingAdd(String username, String email) {
+            this.username = username;
+            this.email = email;
+        }
+    }
+
+    private static final class Filters {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(long expectedInsertions, double falsePositiveRate) {
+            this.usernames = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        private void add(String username, String email) {
+            if (username != null) {
+                usernames.put(username);
+            }
+            if (email != null) {
+                emails.put(email);
+            }
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter over strings using double hashing of a 64-bit hash.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void put(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = bits.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            if (value == null) {
+                return false;
+            }
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combinedHash) {
+            return (combinedHash & Integer.MAX_VALUE) % bitCount;
+        }
+
+        // FNV-1a over the UTF-16 chars, finished with the MurmurHash3 fmix64 avalanche step
+        private static long hash64(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
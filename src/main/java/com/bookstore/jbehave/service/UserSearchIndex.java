@@ -0,0 +1,317 @@
+package com.bookstore.jbehave.service;
+
+import com.bookstore.jbehave.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index over first and last names, replacing {@code LIKE %name%} scans.
+ * Each name is indexed with two leading marker characters, so prefixes of any length map to
+ * trigrams too. Lookups intersect the posting lists of the query's trigrams and return
+ * candidate ids in ascending order; candidates must still be verified against the row,
+ * because matching trigrams do not guarantee a contiguous match.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    private static final String MARKER = "  ";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Replaced wholesale by rebuild; guarded by lock
+    private Map<String, PostingList> postings = new HashMap<>();
+    // Changes committed while a rebuild scans, replayed onto its postings before the swap; guarded by lock
+    private List<NameChange> buffered;
+    private volatile boolean rebuilding;
+    private final CountDownLatch firstBuild = new CountDownLatch(1);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public UserSearchIndex(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Rebuilds the index from the database into new postings and swaps them in. The scan runs
+     * without the lock: searches use the previous postings, and writes update them and are
+     * buffered for replay onto the new ones before the brief swap. Only searches arriving during
+     * the first build wait for it.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<String, PostingList> fresh = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            // Published before the scan starts, so every change its snapshot misses is buffered
+            buffered = new ArrayList<>();
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Long indexed = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<UserRepository.UserNames> names = userRepository.streamAllNames()) {
+                    for (UserRepository.UserNames name : (Iterable<UserRepository.UserNames>) names::iterator) {
+                        add(fresh, name.getId(), nameTrigrams(name.getFirstName(), name.getLastName()));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            lock.writeLock().lock();
+            try {
+                // Replaying a change the snapshot already contains is harmless, adds and removes are idempotent
+                buffered.forEach(change -> change.applyTo(fresh));
+                postings = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Name search index rebuilt with {} users and {} trigrams in {} ms",
+                    indexed, fresh.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                buffered = null;
+                rebuilding = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            firstBuild.countDown();
+        }
+    }
+
+    public void index(Long id, String firstName, String lastName) {
+        TransactionCallbacks.afterCommit(() -> apply(new NameChange(id, Set.of(), nameTrigrams(firstName, lastName))));
+    }
+
+    public void update(Long id, String oldFirstName, String oldLastName, String firstName, String lastName) {
+        TransactionCallbacks.afterCommit(() -> apply(new NameChange(id,
+                nameTrigrams(oldFirstName, oldLastName), nameTrigrams(firstName, lastName))));
+    }
+
+    public void remove(Long id, String firstName, String lastName) {
+        TransactionCallbacks.afterCommit(() -> apply(new NameChange(id, nameTrigrams(firstName, lastName), Set.of())));
+    }
+
+    private void apply(NameChange change) {
+        lock.writeLock().lock();
+        try {
+            change.applyTo(postings);
+            if (buffered != null) {
+                buffered.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code max} candidate ids greater than {@code after}, in ascending order.
+     * Substring queries shorter than three characters are treated as prefix queries.
+     */
+    public long[] candidates(String query, boolean prefix, long after, int max) {
+        Set<String> trigrams = queryTrigrams(query, prefix);
+        if (trigrams.isEmpty()) {
+            return new long[0];
+        }
+        if (rebuilding) {
+            awaitFirstBuild();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(trigrams.size());
+            for (String trigram : trigrams) {
+                PostingList list = postings.get(trigram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            // Drive the intersection from the shortest list
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            PostingList smallest = lists.get(0);
+
+            long[] result = new long[Math.min(max, smallest.size)];
+            int found = 0;
+            for (int i = smallest.firstIndexAfter(after); i < smallest.size && found < result.length; i++) {
+                long id = smallest.ids[i];
+                boolean inAll = true;
+                for (int l = 1; l < lists.size() && inAll; l++) {
+                    inAll = lists.get(l).contains(id);
+                }
+                if (inAll) {
+                    result[found++] = id;
+                }
+            }
+            return found == result.length ? result : Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the name actually matches; used to verify candidates.
+     */
+    public static boolean matches(String query, boolean prefix, String firstName, String lastName) {
+        String normalized = normalize(query);
+        boolean prefixMatch = prefix || normalized.length() < 3;
+        return fieldMatches(normalized, prefixMatch, firstName) || fieldMatches(normalized, prefixMatch, lastName);
+    }
+
+    private static boolean fieldMatches(String query, boolean prefix, String field) {
+        if (field == null) {
+            return false;
+        }
+        String normalized = normalize(field);
+        return prefix ? normalized.startsWith(query) : normalized.contains(query);
+    }
+
+    private void awaitFirstBuild() {
+        try {
+            firstBuild.await();
+        } catch (InterruptedException e) {
+            // Answer from whatever is indexed so far
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void add(Map<String, PostingList> postings, Long id, Set<String> trigrams) {
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+        }
+    }
+
+    private static void remove(Map<String, PostingList> postings, Long id, Set<String> trigrams) {
+        for (String trigram : trigrams) {
+            PostingList list = postings.get(trigram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    static Set<String> nameTrigrams(String firstName, String lastName) {
+        Set<String> trigrams = new HashSet<>();
+        addTrigrams(trigrams, firstName);
+        addTrigrams(trigrams, lastName);
+        return trigrams;
+    }
+
+    private static void addTrigrams(Set<String> trigrams, String field) {
+        if (field == null || field.isBlank()) {
+            return;
+        }
+        String padded = MARKER + normalize(field);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    static Set<String> queryTrigrams(String query, boolean prefix) {
+        Set<String> trigrams = new HashSet<>();
+        if (query == null || query.isBlank()) {
+            return trigrams;
+        }
+        String normalized = normalize(query);
+        String text = prefix || normalized.length() < 3 ? MARKER + normalized : normalized;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A committed name change: the trigrams of the old name are removed, then those of the new
+     * one added.
+     */
+    private static final class NameChange {
+        private final Long id;
+        private final Set<String> removed;
+        private final Set<String> added;
+
+        private NameChange(Long id, Set<String> removed, Set<String> added) {
+            this.id = id;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        void applyTo(Map<String, PostingList> postings) {
+            remove(postings, id, removed);
+            add(postings, id, added);
+        }
+    }
+
+    /**
+     * Sorted, growable array of user ids. Ids come from a sequence, so adds are nearly
+     * always appends.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        int firstIndexAfter(long after) {
+            int index = Arrays.binarySearch(ids, 0, size, after);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
@@ -1,17 +1,49 @@
 package com.bookstore.jbehave.service;
 
+import com.bookstore.jbehave.dto.BatchRegistrationResultDto;
+import com.bookstore.jbehave.dto.BatchUpdateResultDto;
+import com.bookstore.jbehave.dto.CacheStatsDto;
+import com.bookstore.jbehave.dto.ExternalImportProgressDto;
 import com.bookstore.jbehave.dto.ExternalUserDto;
+import com.bookstore.jbehave.dto.UserPageDto;
+import com.bookstore.jbehave.dto.UserPatchDto;
 import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.dto.UserVersionDto;
 import com.bookstore.jbehave.model.User;
 import com.bookstore.jbehave.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,83 +53,591 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final ExternalUserService externalUserService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final UserCache userCache;
+    private final UserMembershipIndex membershipIndex;
+    private final UserSearchIndex searchIndex;
+    private final UserCounters userCounters;
+    private final PasswordHasher passwordHasher;
+    private final RegistrationLocks registrationLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jpaScheduler;
+    private final Environment environment;
 
+    // Matches hibernate.jdbc.batch_size so each flush sends full JDBC batches
+    private static final int BATCH_FLUSH_SIZE = 50;
+    // Upper bound for IN (...) lists used by the set-based duplicate checks
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    // Same rule as the User.phoneNumber constraint
+    private static final Pattern PHONE_NUMBER = Pattern.compile("^\\+?[1-9]\\d{1,14}$");
+
+    /**
+     * Blocking registration. Hashing and the upstream lookup run before any transaction starts,
+     * so neither holds a database connection; only the final duplicate check and the insert run
+     * in a transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String registerUser(UserRegistrationDto registrationDto) {
         log.info("Registering user: {}", registrationDto.getUsername());
 
+        // Turn away duplicates before paying for the hash and the upstream call
+        String duplicate = checkDuplicates(registrationDto);
+        if (duplicate != null) {
+            return duplicate;
+        }
+
+        User user = toUser(registrationDto, passwordHasher.hash(registrationDto.getPassword()));
+        String message = "User registered successfully!";
+
+        // If importing from external API, enrich with external data
+        if (registrationDto.isImportFromExternal() && registrationDto.getExternalUserId() != null) {
+            message = enrichWithExternalData(user, registrationDto.getExternalUserId());
+            if (message == null) {
+                return "External user not found";
+            }
+        }
+
+        return saveRegistration(user, message);
+    }
+
+    /**
+     * Inserts a prepared user in its own transaction. Registrations racing for the same username
+     * or email are serialized by {@link RegistrationLocks}, so the losers are answered by the
+     * duplicate check instead of failing on the unique constraint. The locks are taken on the
+     * user's final values, which may have come from the upstream, and only once the password is
+     * hashed and the upstream has answered.
+     */
+    private String saveRegistration(User user, String message) {
+        return transactionTemplate.execute(status -> {
+            String duplicate = lockAndCheckDuplicates(user.getUsername(), user.getEmail());
+            if (duplicate != null) {
+                return duplicate;
+            }
+            User savedUser = saveNewUser(user);
+            log.info("User registered successfully with ID: {}", savedUser.getId());
+            return message;
+        });
+    }
+
+    /**
+     * Non-blocking registration. The password is hashed on the {@link PasswordHasher} pool, the
+     * external lookup is never blocked on, and the blocking duplicate checks and insert run on
+     * the bounded {@code jpaScheduler}, so the calling thread is released immediately no matter
+     * how slow the upstream is. A saturated pool or scheduler fails with RejectedExecutionException.
+     * In virtual-thread mode the plain blocking flow runs on the caller's virtual thread
+     * instead, since parking a virtual thread on the upstream call is cheap; it still opens a
+     * transaction only for the insert.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<String> registerUserAsync(UserRegistrationDto registrationDto) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Mono.fromCallable(() -> registerUser(registrationDto));
+        }
+
+        if (!registrationDto.isImportFromExternal() || registrationDto.getExternalUserId() == null) {
+            log.info("Registering user: {}", registrationDto.getUsername());
+            return passwordHasher.hashAsync(registrationDto.getPassword())
+                    .flatMap(passwordHash -> Mono.fromCallable(() -> saveRegistration(
+                                    toUser(registrationDto, passwordHash), "User registered successfully!"))
+                            .subscribeOn(jpaScheduler));
+        }
+
+        log.info("Registering user with external data: {}", registrationDto.getUsername());
+        Long externalUserId = registrationDto.getExternalUserId();
+
+        return Mono.fromCallable(() -> Optional.ofNullable(checkDuplicates(registrationDto)))
+                .subscribeOn(jpaScheduler)
+                .flatMap(duplicate -> {
+                    if (duplicate.isPresent()) {
+                        return Mono.just(duplicate.get());
+                    }
+
+                    return passwordHasher.hashAsync(registrationDto.getPassword())
+                            .map(passwordHash -> toUser(registrationDto, passwordHash))
+                            .flatMap(user -> externalUserService.getUserById(externalUserId)
+                                    .map(externalUser -> {
+                                        applyExternalData(user, externalUser);
+                                        return "User registered successfully with external data!";
+                                    })
+                                    .onErrorResume(error -> {
+                                        log.error("Error fetching external user data: {}", error.getMessage());
+                                        // Fallback to regular registration
+                                        return Mono.just("User registered successfully (external data unavailable)!");
+                                    })
+                                    // The early check ran unlocked and the email may have come from upstream
+                                    .flatMap(message -> Mono.fromCallable(() -> saveRegistration(user, message))
+                                            .subscribeOn(jpaScheduler))
+                                    .switchIfEmpty(Mono.fromSupplier(() -> {
+                                        log.warn("External user not found for ID: {}", externalUserId);
+                                        return "External user not found";
+                                    })));
+                });
+    }
+
+    /**
+     * Takes the registration locks for the username and email until the current transaction
+     * completes, then runs the duplicate checks. A value registered moments ago is rejected from
+     * memory before and after waiting, without a database round trip.
+     */
+    private String lockAndCheckDuplicates(String username, String email) {
+        String recent = registrationLocks.recentConflict(username, email);
+        if (recent == null) {
+            registrationLocks.lockUntilCompletion(username, email);
+            recent = registrationLocks.recentConflict(username, email);
+        }
+        if (recent != null) {
+            log.warn("{}: {}", recent, username);
+            return recent;
+        }
+        return checkDuplicates(username, email);
+    }
+
+    private String checkDuplicates(UserRegistrationDto registrationDto) {
+        return checkDuplicates(registrationDto.getUsername(), registrationDto.getEmail());
+    }
+
+    /**
+     * Returns the rejection message when the username or email is already taken, otherwise null.
+     * The membership index answers definite misses without touching the database.
+     */
+    private String checkDuplicates(String username, String email) {
         // Check if username already exists
-        if (userRepository.findByUsername(registrationDto.getUsername()).isPresent()) {
-            log.warn("Username already exists: {}", registrationDto.getUsername());
+        if (membershipIndex.mightContainUsername(username)
+                && userRepository.existsByUsername(username)) {
+            log.warn("Username already exists: {}", username);
             return "Username already exists";
         }
 
         // Check if email already exists
-        if (userRepository.findByEmail(registrationDto.getEmail()).isPresent()) {
-            log.warn("Email already exists: {}", registrationDto.getEmail());
+        if (membershipIndex.mightContainEmail(email)
+                && userRepository.existsByEmail(email)) {
+            log.warn("Email already exists: {}", email);
             return "Email already exists";
         }
 
+        return null;
+    }
+
+    private User saveNewUser(User user) {
+        User savedUser = userRepository.save(user);
+        registrationLocks.registered(savedUser.getUsername(), savedUser.getEmail());
+        membershipIndex.add(savedUser.getUsername(), savedUser.getEmail());
+        searchIndex.index(savedUser.getId(), savedUser.getFirstName(), savedUser.getLastName());
+        userCounters.userAdded(savedUser.getStatus());
+        return savedUser;
+    }
+
+    /**
+     * Registers many users in one pass. Duplicates are resolved with set-based queries
+     * instead of per-user lookups, and inserts are flushed in JDBC batches.
+     * Each item gets its own result; a failing item does not prevent the others from
+     * being registered. External enrichment is not performed for batch items.
+     * Passwords are hashed after a short duplicate lookup transaction, so no connection is held
+     * while hashing. Inserts then commit in chunks, each under the registration locks of its
+     * usernames and emails, so a conflict affects only the items involved.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchRegistrationResultDto registerUsers(List<UserRegistrationDto> registrations) {
+        log.info("Registering batch of {} users", registrations.size());
+
+        BatchRegistrationResultDto.ItemResult[] results = new BatchRegistrationResultDto.ItemResult[registrations.size()];
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+
+        // Validate each item and reject duplicates within the batch itself
+        for (int i = 0; i < registrations.size(); i++) {
+            UserRegistrationDto dto = registrations.get(i);
+            if (dto == null) {
+                results[i] = failure(i, null, "Registration entry is empty");
+                continue;
+            }
+
+            Set<ConstraintViolation<UserRegistrationDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = failure(i, dto.getUsername(), message);
+            } else if (batchUsernames.contains(dto.getUsername())) {
+                results[i] = failure(i, dto.getUsername(), "Duplicate username in batch");
+            } else if (batchEmails.contains(dto.getEmail())) {
+                results[i] = failure(i, dto.getUsername(), "Duplicate email in batch");
+            } else {
+                batchUsernames.add(dto.getUsername());
+                batchEmails.add(dto.getEmail());
+                candidates.add(i);
+            }
+        }
+
+        List<Integer> accepted = transactionTemplate.execute(status -> rejectExisting(registrations, candidates, results));
+
+        // Hash in parallel on the hashing pool with no transaction open; rejection under overload
+        // fails the whole batch
+        List<String> hashes = passwordHasher.hashAll(accepted.stream()
+                .map(i -> registrations.get(i).getPassword())
+                .toList());
+        String[] passwordHashes = new String[registrations.size()];
+        for (int j = 0; j < accepted.size(); j++) {
+            passwordHashes[accepted.get(j)] = hashes.get(j);
+        }
+
+        for (int from = 0; from < accepted.size(); from += BATCH_FLUSH_SIZE) {
+            persistChunk(registrations, accepted.subList(from, Math.min(from + BATCH_FLUSH_SIZE, accepted.size())),
+                    passwordHashes, results);
+        }
+
+        int registered = 0;
+        for (BatchRegistrationResultDto.ItemResult result : results) {
+            if (result.isSuccess()) {
+                registered++;
+            }
+        }
+        log.info("Batch registration finished: {} registered, {} failed", registered, results.length - registered);
+
+        return BatchRegistrationResultDto.builder()
+                .total(results.length)
+                .registered(registered)
+                .failed(results.length - registered)
+                .results(List.of(results))
+                .build();
+    }
+
+    /**
+     * Checks candidates against the database with IN queries, recording a failure for each one
+     * whose username or email exists, and returns the rest. Only values the membership index
+     * cannot rule out need a database check.
+     */
+    private List<Integer> rejectExisting(List<UserRegistrationDto> registrations, List<Integer> candidates,
+                                         BatchRegistrationResultDto.ItemResult[] results) {
+        Set<String> existingUsernames = findExisting(candidates.stream()
+                        .map(i -> registrations.get(i).getUsername())
+                        .filter(membershipIndex::mightContainUsername)
+                        .toList(),
+                userRepository::findExistingUsernames);
+        Set<String> existingEmails = findExisting(candidates.stream()
+                        .map(i -> registrations.get(i).getEmail())
+                        .filter(membershipIndex::mightContainEmail)
+                        .toList(),
+                userRepository::findExistingEmails);
+
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            UserRegistrationDto dto = registrations.get(i);
+            if (existingUsernames.contains(dto.getUsername())) {
+                results[i] = failure(i, dto.getUsername(), "Username already exists");
+            } else if (existingEmails.contains(dto.getEmail())) {
+                results[i] = failure(i, dto.getUsername(), "Email already exists");
+            } else {
+                accepted.add(i);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Inserts one chunk of a batch in its own transaction. The chunk's registration locks are
+     * taken first and its items re-checked, so users registered since the lookup fail as
+     * duplicates; results are only recorded once the chunk has committed. A unique constraint
+     * violation can still come from a rename or another process, in which case the chunk's
+     * items are retried one at a time so only the conflicting ones fail.
+     */
+    private void persistChunk(List<UserRegistrationDto> registrations, List<Integer> chunk, String[] passwordHashes,
+                              BatchRegistrationResultDto.ItemResult[] results) {
+        List<User> pending = new ArrayList<>(chunk.size());
+        List<Integer> pendingIndexes = new ArrayList<>(chunk.size());
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                registrationLocks.lockAllUntilCompletion(
+                        chunk.stream().map(i -> registrations.get(i).getUsername()).toList(),
+                        chunk.stream().map(i -> registrations.get(i).getEmail()).toList());
+                for (int i : rejectExisting(registrations, chunk, results)) {
+                    pending.add(toUser(registrations.get(i), passwordHashes[i]));
+                    pendingIndexes.add(i);
+                }
+                if (!pending.isEmpty()) {
+                    saveBatch(pending);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (chunk.size() == 1) {
+                int index = chunk.get(0);
+                results[index] = failure(index, registrations.get(index).getUsername(),
+                        "Username or email already exists");
+                return;
+            }
+            log.warn("Batch chunk of {} users hit a unique constraint, retrying one by one", chunk.size());
+            for (int i : chunk) {
+                persistChunk(registrations, List.of(i), passwordHashes, results);
+            }
+            return;
+        }
+
+        for (int j = 0; j < pending.size(); j++) {
+            User saved = pending.get(j);
+            int index = pendingIndexes.get(j);
+            results[index] = BatchRegistrationResultDto.ItemResult.builder()
+                    .index(index)
+                    .username(saved.getUsername())
+                    .success(true)
+                    .message("User registered successfully!")
+                    .userId(saved.getId())
+                    .build();
+        }
+    }
+
+    /**
+     * Inserts new users as one JDBC batch and updates the in-memory indexes and counters.
+     * Must run inside a transaction.
+     */
+    private void saveBatch(List<User> users) {
+        userRepository.saveAll(users);
+        for (User user : users) {
+            registrationLocks.registered(user.getUsername(), user.getEmail());
+            membershipIndex.add(user.getUsername(), user.getEmail());
+            searchIndex.index(user.getId(), user.getFirstName(), user.getLastName());
+        }
+        userCounters.usersAdded(User.UserStatus.ACTIVE, users.size());
+        // Flush as one JDBC batch and detach the entities so the persistence context stays small;
+        // flushing through the repository translates constraint violations
+        userRepository.flush();
+        entityManager.clear();
+    }
+
+    private Set<String> findExisting(Collection<String> values, Function<Collection<String>, Set<String>> lookup) {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+        for (String value : values) {
+            chunk.add(value);
+            if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+                existing.addAll(lookup.apply(chunk));
+                chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            existing.addAll(lookup.apply(chunk));
+        }
+        return existing;
+    }
+
+    /**
+     * Streams every user from the external API into the database. Users are decoded as they
+     * arrive and written {@code batchSize} at a time, each batch in its own transaction with
+     * one set-based duplicate check, so round trips grow with the number of batches rather
+     * than users. Only one batch is requested ahead of the one being written, so a slow
+     * database slows the download instead of buffering it.
+     * Users whose username or email already exists are skipped as duplicates, which makes
+     * re-running an import safe. Emits one progress event per batch and a final one.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ExternalImportProgressDto> importExternalUsers(int batchSize) {
+        return Flux.defer(() -> {
+            ImportState state = new ImportState();
+            log.info("Importing all external users in batches of {}", batchSize);
+            return externalUserService.getAllUsers()
+                    .buffer(batchSize)
+                    .concatMap(batch -> Mono.fromCallable(() -> importBatch(batch, state))
+                            .subscribeOn(jpaScheduler), 1)
+                    .concatWith(Mono.fromSupplier(() -> state.progress(List.of(), true, null)))
+                    .onErrorResume(error -> {
+                        log.error("External user import aborted: {}", error.getMessage());
+                        return Mono.just(state.progress(List.of(), true, error.getMessage()));
+                    });
+        });
+    }
+
+    private ExternalImportProgressDto importBatch(List<ExternalUserDto> batch, ImportState state) {
+        List<ExternalImportProgressDto.RecordFailure> failures = new ArrayList<>();
+        List<User> candidates = new ArrayList<>(batch.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        int duplicates = 0;
+
+        for (ExternalUserDto externalUser : batch) {
+            User user = fromExternal(externalUser);
+            Set<ConstraintViolation<User>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                failures.add(recordFailure(user, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            } else if (usernames.contains(user.getUsername()) || emails.contains(user.getEmail())) {
+                duplicates++;
+            } else {
+                usernames.add(user.getUsername());
+                emails.add(user.getEmail());
+                candidates.add(user);
+            }
+        }
+
+        int imported = 0;
+        try {
+            imported = transactionTemplate.execute(status -> {
+                Set<String> existingUsernames = findExisting(
+                        usernames.stream().filter(membershipIndex::mightContainUsername).toList(),
+                        userRepository::findExistingUsernames);
+                Set<String> existingEmails = findExisting(
+                        emails.stream().filter(membershipIndex::mightContainEmail).toList(),
+                        userRepository::findExistingEmails);
+                List<User> fresh = candidates.stream()
+                        .filter(user -> !existingUsernames.contains(user.getUsername())
+                                && !existingEmails.contains(user.getEmail()))
+                        .toList();
+                for (int from = 0; from < fresh.size(); from += BATCH_FLUSH_SIZE) {
+                    saveBatch(fresh.subList(from, Math.min(from + BATCH_FLUSH_SIZE, fresh.size())));
+                }
+                return fresh.size();
+            });
+            duplicates += candidates.size() - imported;
+        } catch (RuntimeException e) {
+            log.error("Import batch {} failed and was rolled back: {}", state.batches + 1, e.getMessage());
+            candidates.forEach(user -> failures.add(recordFailure(user, "Batch rolled back: " + e.getMessage())));
+        }
+
+        state.record(batch.size(), imported, duplicates, failures.size());
+        log.info("Import batch {}: {} processed, {} imported, {} duplicates, {} failed so far",
+                state.batches, state.processed, state.imported, state.duplicates, state.failed);
+        return state.progress(failures, false, null);
+    }
+
+    private User fromExternal(ExternalUserDto externalUser) {
         User user = User.builder()
+                .username(externalUser.getUsername())
+                // Imported accounts must reset their password to sign in: a random value that is
+                // not a BCrypt hash never matches, and skipping the hash keeps imports cheap
+                .password(UUID.randomUUID().toString())
+                .build();
+        applyExternalData(user, externalUser);
+        user.setPhoneNumber(normalizePhone(user.getPhoneNumber()));
+        return user;
+    }
+
+    // Upstream numbers carry formatting and extensions, e.g. "1-770-736-8031 x56442"
+    private static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String number = phone.split("[xX]", 2)[0].trim();
+        String normalized = (number.startsWith("+") ? "+" : "") + number.replaceAll("\\D", "");
+        return PHONE_NUMBER.matcher(normalized).matches() ? normalized : null;
+    }
+
+    private static ExternalImportProgressDto.RecordFailure recordFailure(User user, String message) {
+        return ExternalImportProgressDto.RecordFailure.builder()
+                .externalUserId(user.getExternalUserId())
+                .username(user.getUsername())
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Cumulative counters of one import run. Batches are processed one at a time.
+     */
+    private static final class ImportState {
+        private final long startNanos = System.nanoTime();
+        private int batches;
+        private long processed;
+        private long imported;
+        private long duplicates;
+        private long failed;
+
+        void record(int processed, int imported, int duplicates, int failed) {
+            this.batches++;
+            this.processed += processed;
+            this.imported += imported;
+            this.duplicates += duplicates;
+            this.failed += failed;
+        }
+
+        ExternalImportProgressDto progress(List<ExternalImportProgressDto.RecordFailure> failures,
+                                           boolean done, String error) {
+            return ExternalImportProgressDto.builder()
+                    .batch(batches)
+                    .processed(processed)
+                    .imported(imported)
+                    .duplicates(duplicates)
+                    .failed(failed)
+                    .elapsedMillis((System.nanoTime() - startNanos) / 1_000_000)
+                    .done(done)
+                    .error(error)
+                    .failures(failures)
+                    .build();
+        }
+    }
+
+    private static BatchRegistrationResultDto.ItemResult failure(int index, String username, String message) {
+        return BatchRegistrationResultDto.ItemResult.builder()
+                .index(index)
+                .username(username)
+                .success(false)
+                .message(message)
+                .build();
+    }
+
+    private User toUser(UserRegistrationDto registrationDto, String passwordHash) {
+        return User.builder()
                 .username(registrationDto.getUsername())
-                .password(registrationDto.getPassword()) // In real app, this should be encrypted
+                .password(passwordHash)
                 .email(registrationDto.getEmail())
                 .firstName(registrationDto.getFirstName())
                 .lastName(registrationDto.getLastName())
                 .phoneNumber(registrationDto.getPhoneNumber())
                 .externalUserId(registrationDto.getExternalUserId())
                 .build();
-
-        // If importing from external API, enrich with external data
-        if (registrationDto.isImportFromExternal() && registrationDto.getExternalUserId() != null) {
-            return registerUserWithExternalData(user, registrationDto.getExternalUserId());
-        }
-
-        User savedUser = userRepository.save(user);
-        log.info("User registered successfully with ID: {}", savedUser.getId());
-        return "User registered successfully!";
     }
 
-    private String registerUserWithExternalData(User user, Long externalUserId) {
+    /**
+     * Fetches the upstream user and applies its data. Returns the registration message, or null
+     * when the upstream has no such user; upstream errors fall back to a plain registration.
+     */
+    private String enrichWithExternalData(User user, Long externalUserId) {
         try {
             ExternalUserDto externalUser = externalUserService.getUserById(externalUserId).block();
-            if (externalUser != null) {
-                // Enrich user with external data
-                user.setEmail(externalUser.getEmail());
-                user.setPhoneNumber(externalUser.getPhone());
-                if (externalUser.getName() != null && !externalUser.getName().isEmpty()) {
-                    String[] nameParts = externalUser.getName().split(" ", 2);
-                    user.setFirstName(nameParts[0]);
-                    if (nameParts.length > 1) {
-                        user.setLastName(nameParts[1]);
-                    }
-                }
-                user.setExternalUserId(externalUser.getId());
-                
-                User savedUser = userRepository.save(user);
-                log.info("User registered with external data, ID: {}", savedUser.getId());
-                return "User registered successfully with external data!";
-            } else {
+            if (externalUser == null) {
                 log.warn("External user not found for ID: {}", externalUserId);
-                return "External user not found";
+                return null;
             }
+            applyExternalData(user, externalUser);
+            return "User registered successfully with external data!";
         } catch (Exception e) {
             log.error("Error fetching external user data: {}", e.getMessage());
             // Fallback to regular registration
-            User savedUser = userRepository.save(user);
             return "User registered successfully (external data unavailable)!";
         }
     }
 
-    @Transactional(readOnly = true)
+    private void applyExternalData(User user, ExternalUserDto externalUser) {
+        // Enrich user with external data
+        user.setEmail(externalUser.getEmail());
+        user.setPhoneNumber(externalUser.getPhone());
+        if (externalUser.getName() != null && !externalUser.getName().isEmpty()) {
+            String[] nameParts = externalUser.getName().split(" ", 2);
+            user.setFirstName(nameParts[0]);
+            if (nameParts.length > 1) {
+                user.setLastName(nameParts[1]);
+            }
+        }
+        user.setExternalUserId(externalUser.getId());
+    }
+
+    /**
+     * The cache is checked without opening a transaction, so a hit takes no connection; only a
+     * miss runs its query, in a read-only transaction that may be served by a replica.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<User> findByUsername(String username) {
         log.debug("Finding user by username: {}", username);
-        return userRepository.findByUsername(username);
+        return userCache.findByUsername(username,
+                () -> readOnly(() -> userRepository.findByUsername(username)));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<User> findByEmail(String email) {
         log.debug("Finding user by email: {}", email);
-        return userRepository.findByEmail(email);
+        return userCache.findByEmail(email,
+                () -> readOnly(() -> userRepository.findByEmail(email)));
     }
 
     @Transactional(readOnly = true)
@@ -106,10 +646,126 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Returns up to {@code limit} users with an id greater than {@code after}, ordered by id.
+     * One extra row is fetched to tell whether another page follows.
+     */
     @Transactional(readOnly = true)
+    public UserPageDto findUsersAfter(long after, int limit) {
+        log.debug("Finding users after ID: {}, limit: {}", after, limit);
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit + 1));
+
+        boolean hasMore = users.size() > limit;
+        if (hasMore) {
+            users = users.subList(0, limit);
+        }
+        Long nextCursor = users.isEmpty() ? null : users.get(users.size() - 1).getId();
+
+        return UserPageDto.builder()
+                .users(users)
+                .nextCursor(hasMore ? nextCursor : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Searches first and last names through the trigram index instead of a LIKE scan.
+     * Candidates are verified against the stored rows, {@code limit} matches at a time,
+     * using keyset pagination on id.
+     */
+    @Transactional(readOnly = true)
+    public UserPageDto searchUsers(String query, boolean prefix, long after, int limit) {
+        log.debug("Searching users for: {}, prefix: {}, after ID: {}, limit: {}", query, prefix, after, limit);
+
+        List<User> matches = new ArrayList<>(limit + 1);
+        long cursor = after;
+        while (matches.size() <= limit) {
+            long[] candidates = searchIndex.candidates(query, prefix, cursor, limit * 2);
+            if (candidates.length == 0) {
+                break;
+            }
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (long candidate : candidates) {
+                ids.add(candidate);
+            }
+            userRepository.findAllById(ids).stream()
+                    .filter(user -> UserSearchIndex.matches(query, prefix, user.getFirstName(), user.getLastName()))
+                    .sorted(Comparator.comparing(User::getId))
+                    .forEach(matches::add);
+            cursor = candidates[candidates.length - 1];
+        }
+
+        boolean hasMore = matches.size() > limit;
+        List<User> page = hasMore ? matches.subList(0, limit) : matches;
+        return UserPageDto.builder()
+                .users(page)
+                .nextCursor(hasMore ? page.get(page.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Streams every user ordered by id to the given consumer inside one read-only transaction.
+     * Rows are read with a bounded fetch size and detached once consumed, so memory use does
+     * not grow with the size of the table.
+     *
+     * @return the number of users streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamAllUsers(Consumer<User> consumer) {
+        log.debug("Streaming all users");
+        long streamed = 0;
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            for (User user : (Iterable<User>) users::iterator) {
+                consumer.accept(user);
+                entityManager.detach(user);
+                streamed++;
+            }
+        }
+        return streamed;
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<User> findById(Long id) {
         log.debug("Finding user by ID: {}", id);
-        return userRepository.findById(id);
+        return userCache.findById(id, () -> readOnly(() -> userRepository.findById(id)));
+    }
+
+    /**
+     * Versions for conditional requests come from the cache when the user is cached and
+     * otherwise from a two-column query, so an unchanged user is never loaded in full. Like the
+     * cached lookups, a cache hit opens no transaction.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<UserVersionDto> findVersionById(Long id) {
+        return userCache.cachedById(id).map(UserService::toVersion)
+                .or(() -> readOnly(() -> userRepository.findVersionById(id)));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<UserVersionDto> findVersionByUsername(String username) {
+        return userCache.cachedByUsername(username).map(UserService::toVersion)
+                .or(() -> readOnly(() -> userRepository.findVersionByUsername(username)));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<UserVersionDto> findVersionByEmail(String email) {
+        return userCache.cachedByEmail(email).map(UserService::toVersion)
+                .or(() -> readOnly(() -> userRepository.findVersionByEmail(email)));
+    }
+
+    /**
+     * Runs a query in its own read-only transaction, or joins the caller's, so that with read
+     * replicas enabled it is routed to a replica.
+     */
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(tx -> query.get());
+    }
+
+    private static UserVersionDto toVersion(User user) {
+        return new UserVersionDto(user.getId(), user.getUpdatedAt());
     }
 
     public String updateUser(Long id, UserRegistrationDto updateDto) {
@@ -124,21 +780,25 @@ public class UserService {
         User user = userOptional.get();
         
         // Check if new username is taken by another user
-        if (!user.getUsername().equals(updateDto.getUsername())) {
-            Optional<User> existingUser = userRepository.findByUsername(updateDto.getUsername());
-            if (existingUser.isPresent() && !existingUser.get().getId().equals(id)) {
-                return "Username already exists";
-            }
+        if (!user.getUsername().equals(updateDto.getUsername())
+                && membershipIndex.mightContainUsername(updateDto.getUsername())
+                && userRepository.existsByUsernameAndIdNot(updateDto.getUsername(), id)) {
+            return "Username already exists";
         }
 
         // Check if new email is taken by another user
-        if (!user.getEmail().equals(updateDto.getEmail())) {
-            Optional<User> existingUser = userRepository.findByEmail(updateDto.getEmail());
-            if (existingUser.isPresent() && !existingUser.get().getId().equals(id)) {
-                return "Email already exists";
-            }
+        if (!user.getEmail().equals(updateDto.getEmail())
+                && membershipIndex.mightContainEmail(updateDto.getEmail())
+                && userRepository.existsByEmailAndIdNot(updateDto.getEmail(), id)) {
+            return "Email already exists";
         }
 
+        // Evict the old username and email as well as the id before they change
+        userCache.invalidate(id, user.getUsername(), user.getEmail());
+        registrationLocks.released(user.getUsername(), user.getEmail());
+        searchIndex.update(id, user.getFirstName(), user.getLastName(),
+                updateDto.getFirstName(), updateDto.getLastName());
+
         user.setUsername(updateDto.getUsername());
         user.setEmail(updateDto.getEmail());
         user.setFirstName(updateDto.getFirstName());
@@ -146,30 +806,257 @@ public class UserService {
         user.setPhoneNumber(updateDto.getPhoneNumber());
 
         userRepository.save(user);
+        membershipIndex.add(user.getUsername(), user.getEmail());
         log.info("User updated successfully, ID: {}", id);
         return "User updated successfully!";
     }
 
+    /**
+     * Partial update. Only non-null fields that differ from the stored values are applied, and
+     * only a changed username or email is checked for uniqueness. User is dynamically updated,
+     * so the UPDATE at commit touches just the modified columns.
+     */
+    public String patchUser(Long id, UserPatchDto patch) {
+        log.info("Patching user with ID: {}", id);
+
+        Optional<User> userOptional = userRepository.findById(id);
+        if (userOptional.isEmpty()) {
+            log.warn("User not found for patch, ID: {}", id);
+            return "User not found";
+        }
+
+        User user = userOptional.get();
+        // A changed username or email cannot belong to this user, so any match is another user
+        if (changed(user.getUsername(), patch.getUsername())
+                && membershipIndex.mightContainUsername(patch.getUsername())
+                && userRepository.existsByUsername(patch.getUsername())) {
+            return "Username already exists";
+        }
+        if (changed(user.getEmail(), patch.getEmail())
+                && membershipIndex.mightContainEmail(patch.getEmail())
+                && userRepository.existsByEmail(patch.getEmail())) {
+            return "Email already exists";
+        }
+
+        if (!applyPatch(user, patch)) {
+            return "User unchanged, nothing to update";
+        }
+        log.info("User patched successfully, ID: {}", id);
+        return "User updated successfully!";
+    }
+
+    /**
+     * Bulk partial update. Users are loaded and checked in chunks: one IN query loads a chunk,
+     * changed usernames and emails are checked with set-based queries, and the chunk's dynamic
+     * UPDATEs are flushed as JDBC batches. Each item gets its own result. A username or email
+     * released by another item of the same batch is still reported as taken.
+     */
+    public BatchUpdateResultDto patchUsers(List<UserPatchDto> patches) {
+        log.info("Patching batch of {} users", patches.size());
+
+        BatchUpdateResultDto.ItemResult[] results = new BatchUpdateResultDto.ItemResult[patches.size()];
+        Map<Long, Integer> candidates = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < patches.size(); i++) {
+            UserPatchDto patch = patches.get(i);
+            if (patch == null || patch.getId() == null) {
+                results[i] = updateFailure(i, null, "User id is required");
+                continue;
+            }
+
+            Set<ConstraintViolation<UserPatchDto>> violations = validator.validate(patch);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = updateFailure(i, patch.getId(), message);
+            } else if (candidates.putIfAbsent(patch.getId(), i) != null) {
+                results[i] = updateFailure(i, patch.getId(), "Duplicate user id in batch");
+            } else {
+                ids.add(patch.getId());
+            }
+        }
+
+        Set<String> claimedUsernames = new HashSet<>();
+        Set<String> claimedEmails = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += BATCH_FLUSH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_FLUSH_SIZE, ids.size()));
+            Map<Long, User> users = new HashMap<>();
+            userRepository.findAllById(chunk).forEach(user -> users.put(user.getId(), user));
+
+            // Only values that change and that the membership index cannot rule out need a database check
+            List<String> newUsernames = new ArrayList<>();
+            List<String> newEmails = new ArrayList<>();
+            for (Long id : chunk) {
+                User user = users.get(id);
+                UserPatchDto patch = patches.get(candidates.get(id));
+                if (user != null && changed(user.getUsername(), patch.getUsername())
+                        && membershipIndex.mightContainUsername(patch.getUsername())) {
+                    newUsernames.add(patch.getUsername());
+                }
+                if (user != null && changed(user.getEmail(), patch.getEmail())
+                        && membershipIndex.mightContainEmail(patch.getEmail())) {
+                    newEmails.add(patch.getEmail());
+                }
+            }
+            Set<String> existingUsernames = findExisting(newUsernames, userRepository::findExistingUsernames);
+            Set<String> existingEmails = findExisting(newEmails, userRepository::findExistingEmails);
+
+            for (Long id : chunk) {
+                int i = candidates.get(id);
+                UserPatchDto patch = patches.get(i);
+                User user = users.get(id);
+                if (user == null) {
+                    results[i] = updateFailure(i, id, "User not found");
+                    continue;
+                }
+
+                boolean usernameChanged = changed(user.getUsername(), patch.getUsername());
+                boolean emailChanged = changed(user.getEmail(), patch.getEmail());
+                if (usernameChanged && (existingUsernames.contains(patch.getUsername())
+                        || !claimedUsernames.add(patch.getUsername()))) {
+                    results[i] = updateFailure(i, id, "Username already exists");
+                } else if (emailChanged && (existingEmails.contains(patch.getEmail())
+                        || !claimedEmails.add(patch.getEmail()))) {
+                    results[i] = updateFailure(i, id, "Email already exists");
+                } else {
+                    String message = applyPatch(user, patch)
+                            ? "User updated successfully!"
+                            : "User unchanged, nothing to update";
+                    results[i] = BatchUpdateResultDto.ItemResult.builder()
+                            .index(i)
+                            .userId(id)
+                            .success(true)
+                            .message(message)
+                            .build();
+                }
+            }
+
+            // Send the chunk's UPDATEs as JDBC batches and keep the persistence context small
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        int updated = 0;
+        for (BatchUpdateResultDto.ItemResult result : results) {
+            if (result.isSuccess()) {
+                updated++;
+            }
+        }
+        log.info("Batch patch finished: {} updated, {} failed", updated, results.length - updated);
+
+        return BatchUpdateResultDto.builder()
+                .total(results.length)
+                .updated(updated)
+                .failed(results.length - updated)
+                .results(List.of(results))
+                .build();
+    }
+
+    private static boolean changed(Object current, Object patched) {
+        return patched != null && !patched.equals(current);
+    }
+
+    /**
+     * Applies the changed fields of a patch to a managed user and keeps the cache, indexes and
+     * counters in step. Returns false when nothing changed.
+     */
+    private boolean applyPatch(User user, UserPatchDto patch) {
+        boolean usernameChanged = changed(user.getUsername(), patch.getUsername());
+        boolean emailChanged = changed(user.getEmail(), patch.getEmail());
+        boolean firstNameChanged = changed(user.getFirstName(), patch.getFirstName());
+        boolean lastNameChanged = changed(user.getLastName(), patch.getLastName());
+        boolean phoneNumberChanged = changed(user.getPhoneNumber(), patch.getPhoneNumber());
+        boolean statusChanged = changed(user.getStatus(), patch.getStatus());
+        if (!usernameChanged && !emailChanged && !firstNameChanged && !lastNameChanged
+                && !phoneNumberChanged && !statusChanged) {
+            return false;
+        }
+
+        // Evict the old username and email as well as the id before they change
+        userCache.invalidate(user.getId(), user.getUsername(), user.getEmail());
+        registrationLocks.released(usernameChanged ? user.getUsername() : null,
+                emailChanged ? user.getEmail() : null);
+        if (firstNameChanged || lastNameChanged) {
+            String firstName = firstNameChanged ? patch.getFirstName() : user.getFirstName();
+            String lastName = lastNameChanged ? patch.getLastName() : user.getLastName();
+            searchIndex.update(user.getId(), user.getFirstName(), user.getLastName(), firstName, lastName);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
+        }
+        if (usernameChanged) {
+            user.setUsername(patch.getUsername());
+        }
+        if (emailChanged) {
+            user.setEmail(patch.getEmail());
+        }
+        if (phoneNumberChanged) {
+            user.setPhoneNumber(patch.getPhoneNumber());
+        }
+        if (statusChanged) {
+            userCounters.statusChanged(user.getStatus(), patch.getStatus());
+            user.setStatus(patch.getStatus());
+        }
+        if (usernameChanged || emailChanged) {
+            membershipIndex.add(user.getUsername(), user.getEmail());
+        }
+        return true;
+    }
+
+    private static BatchUpdateResultDto.ItemResult updateFailure(int index, Long userId, String message) {
+        return BatchUpdateResultDto.ItemResult.builder()
+                .index(index)
+                .userId(userId)
+                .success(false)
+                .message(message)
+                .build();
+    }
+
     public String deleteUser(Long id) {
         log.info("Deleting user with ID: {}", id);
         
-        if (!userRepository.existsById(id)) {
+        Optional<User> userOptional = userRepository.findById(id);
+        if (userOptional.isEmpty()) {
             log.warn("User not found for deletion, ID: {}", id);
             return "User not found";
         }
 
-        userRepository.deleteById(id);
+        User user = userOptional.get();
+        userRepository.delete(user);
+        userCache.invalidate(id, user.getUsername(), user.getEmail());
+        registrationLocks.released(user.getUsername(), user.getEmail());
+        searchIndex.remove(id, user.getFirstName(), user.getLastName());
+        userCounters.userRemoved(user.getStatus());
         log.info("User deleted successfully, ID: {}", id);
         return "User deleted successfully!";
     }
 
-    @Transactional(readOnly = true)
+    public Map<String, CacheStatsDto> getCacheStats() {
+        return userCache.stats();
+    }
+
+    /**
+     * Answered from {@link UserCounters} without opening a transaction, so polling the counts
+     * does not take a connection; the counters open their own only for the fallback query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long countUsers() {
-        long count = userRepository.count();
+        long count = userCounters.total();
         log.debug("Total users count: {}", count);
         return count;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<User.UserStatus, Long> countUsersByStatus() {
+        return userCounters.countsByStatus();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long countUsersByStatus(User.UserStatus status) {
+        return userCounters.count(status);
+    }
+
     public Mono<Boolean> validateExternalUser(Long externalUserId) {
         log.info("Validating external user ID: {}", externalUserId);
         return externalUserService.userExists(externalUserId);
@@ -0,0 +1,129 @@
+package com.bookstore.jbehave;
+
+import com.bookstore.jbehave.config.SpringContextStepsFactory;
+import com.bookstore.jbehave.config.StoryContext;
+import lombok.extern.slf4j.Slf4j;
+import org.jbehave.core.configuration.Configuration;
+import org.jbehave.core.embedder.Embedder;
+import org.jbehave.core.embedder.MetaFilter;
+import org.jbehave.core.io.StoryFinder;
+import org.jbehave.core.model.Meta;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.jbehave.core.io.CodeLocations.codeLocationFromClass;
+
+/**
+ * Finds every story on the test classpath and runs them against one shared Spring context.
+ * Stories name their steps class with a {@code @steps} meta property and are grouped by it,
+ * since step texts overlap between steps classes. Groups run concurrently; stories marked
+ * {@code @serial} (for example those asserting on the total user count) run afterwards, one at a time.
+ * A story without {@code @steps} fails the run rather than passing with every step pending.
+ * <p>
+ * Thread count and meta filter can be set with {@code -Dstories.threads} and {@code -Dstories.filter}.
+ */
+@Slf4j
+public class ParallelStoryRunner {
+
+    private static final String STEPS_PACKAGE = "com.bookstore.jbehave.steps.";
+
+    protected String storyPattern() {
+        return "**/*.story";
+    }
+
+    /**
+     * Stories that are kept as specifications but have no steps implementation yet.
+     */
+    protected List<String> storyExcludes() {
+        return List.of("**/integration_tests.story", "**/regression_tests.story");
+    }
+
+    protected String metaFilter() {
+        return System.getProperty("stories.filter", "-performance");
+    }
+
+    protected int threads() {
+        return Integer.getInteger("stories.threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void runStories() throws Exception {
+        Configuration configuration = StoryContext.configuration();
+        MetaFilter filter = new MetaFilter(metaFilter());
+        Map<String, List<String>> parallel = new TreeMap<>();
+        Map<String, List<String>> serial = new TreeMap<>();
+
+        List<String> paths = new StoryFinder().findPaths(codeLocationFromClass(getClass()),
+                List.of(storyPattern()), storyExcludes());
+        for (String path : paths) {
+            Meta meta = configuration.storyParser()
+                    .parseStory(configuration.storyLoader().loadStoryAsText(path), path)
+                    .getMeta();
+            if (filter.allow(meta)) {
+                if (meta.getProperty("steps").isBlank()) {
+                    throw new IllegalStateException("Story has no @steps meta property: " + path);
+                }
+                Map<String, List<String>> phase = meta.hasProperty("serial") ? serial : parallel;
+                phase.computeIfAbsent(meta.getProperty("steps"), steps -> new ArrayList<>()).add(path);
+            }
+        }
+        log.info("Running {} story groups in parallel and {} serially", parallel.size(), serial.size());
+
+        List<Throwable> failures = new ArrayList<>();
+        ExecutorService groups = Executors.newFixedThreadPool(Math.max(1, Math.min(threads(), parallel.size())));
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            parallel.forEach((steps, groupPaths) -> running.add(groups.submit(
+                    () -> embedder(configuration, steps, threads()).runStoriesAsPaths(groupPaths))));
+            for (Future<?> group : running) {
+                try {
+                    group.get();
+                } catch (Exception e) {
+                    failures.add(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        } finally {
+            groups.shutdown();
+        }
+
+        serial.forEach((steps, groupPaths) -> {
+            try {
+                embedder(configuration, steps, 1).runStoriesAsPaths(groupPaths);
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        });
+
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError(failures.size() + " story group(s) failed");
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    private Embedder embedder(Configuration configuration, String steps, int threads) {
+        Embedder embedder = new Embedder();
+        embedder.useConfiguration(configuration);
+        embedder.useStepsFactory(new SpringContextStepsFactory(configuration, stepsTypes(steps)));
+        embedder.useMetaFilters(List.of(metaFilter()));
+        embedder.embedderControls()
+                .doGenerateViewAfterStories(false)
+                .useThreads(threads);
+        return embedder;
+    }
+
+    private static Class<?>[] stepsTypes(String steps) {
+        try {
+            return new Class<?>[]{Class.forName(STEPS_PACKAGE + steps.trim())};
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown steps class in story meta: " + steps, e);
+        }
+    }
+}
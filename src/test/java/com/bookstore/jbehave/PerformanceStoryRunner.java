@@ -0,0 +1,23 @@
+package com.bookstore.jbehave;
+
+/**
+ * Runs the load stories against the shared story context. Excluded from the default
+ * build; run with {@code ./mvnw test -Pperf}.
+ */
+public class PerformanceStoryRunner extends ParallelStoryRunner {
+
+    @Override
+    protected String storyPattern() {
+        return "**/performance_tests.story";
+    }
+
+    @Override
+    protected String metaFilter() {
+        return "+performance";
+    }
+
+    @Override
+    protected int threads() {
+        return 1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookstore.jbehave.benchmark;
+
+import com.bookstore.jbehave.config.WebClientConfig;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.Latency;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to complete a burst of concurrent external lookups against the local upstream stand-in,
+ * comparing Reactor Netty's default global pool with the tuned pool from {@link WebClientConfig}
+ * at several sizes. Requests rejected by the pool (pending-acquire limit or timeout) are
+ * counted in the {@code failures} column rather than failing the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark {
+
+    private static final int BURST = 512;
+
+    /** {@code default} uses WebClient.create(); numbers are the tuned pool's max connections. */
+    @Param({"default", "32", "128", "512"})
+    private String pool;
+
+    @Param({"20"})
+    private int upstreamLatencyMillis;
+
+    private JsonPlaceholderStub upstream;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upstream = new JsonPlaceholderStub(UpstreamProfile.builder()
+                .users(BURST)
+                .latency(Latency.fixed(upstreamLatencyMillis))
+                .build())
+                .start();
+
+        if (pool.equals("default")) {
+            webClient = WebClient.create();
+            return;
+        }
+        WebClientConfig config = new WebClientConfig();
+        connectionProvider = config.externalConnectionProvider(Integer.parseInt(pool), BURST * 2,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30));
+        webClient = config.webClient(config.externalHttpClient(connectionProvider,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(5), true, false, upstream.baseUrl()), DataSize.ofMegabytes(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        upstream.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long failures;
+    }
+
+    @Benchmark
+    public long burst(Outcomes outcomes) {
+        String baseUrl = upstream.baseUrl();
+        Long succeeded = Flux.range(1, BURST)
+                .flatMap(id -> webClient.get()
+                        .uri(baseUrl + "/users/{id}", id)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .thenReturn(1L)
+                        .onErrorReturn(0L), BURST)
+                .reduce(0L, Long::sum)
+                .block();
+        long completed = succeeded == null ? 0 : succeeded;
+        outcomes.failures += BURST - completed;
+        return completed;
+    }
+}
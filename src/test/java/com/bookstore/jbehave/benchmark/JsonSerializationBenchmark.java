@@ -0,0 +1,82 @@
+package com.bookstore.jbehave.benchmark;
+
+import com.bookstore.jbehave.dto.ExternalUserDto;
+import com.bookstore.jbehave.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization cost of the payloads the API and the external client exchange.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private ExternalUserDto externalUser;
+    private byte[] externalUserJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        user = User.builder()
+                .id(42L)
+                .username("json_user")
+                .password("password123")
+                .email("json@bench.test")
+                .firstName("Json")
+                .lastName("User")
+                .phoneNumber("+15550100")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .externalUserId(7L)
+                .build();
+
+        externalUser = ExternalUserDto.builder()
+                .id(7L)
+                .name("Leanne Graham")
+                .username("Bret")
+                .email("Sincere@april.biz")
+                .phone("1-770-736-8031 x56442")
+                .website("hildegard.org")
+                .address(ExternalUserDto.AddressDto.builder()
+                        .street("Kulas Light")
+                        .suite("Apt. 556")
+                        .city("Gwenborough")
+                        .zipcode("92998-3874")
+                        .geo(ExternalUserDto.AddressDto.GeoDto.builder().lat("-37.3159").lng("81.1496").build())
+                        .build())
+                .company(ExternalUserDto.CompanyDto.builder()
+                        .name("Romaguera-Crona")
+                        .catchPhrase("Multi-layered client-server neural-net")
+                        .bs("harness real-time e-markets")
+                        .build())
+                .build();
+        externalUserJson = objectMapper.writeValueAsBytes(externalUser);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeExternalUser() throws Exception {
+        return objectMapper.writeValueAsBytes(externalUser);
+    }
+
+    @Benchmark
+    public ExternalUserDto deserializeExternalUser() throws Exception {
+        return objectMapper.readValue(externalUserJson, ExternalUserDto.class);
+    }
+}
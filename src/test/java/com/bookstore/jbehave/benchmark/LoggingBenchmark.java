@@ -0,0 +1,112 @@
+package com.bookstore.jbehave.benchmark;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.controller.UserController;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.model.User;
+import com.bookstore.jbehave.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a cached lookup through {@link UserController}, whose cost is dominated by its
+ * per-request INFO line, under each logging mode:
+ * <ul>
+ *     <li>{@code off}: application loggers at WARN</li>
+ *     <li>{@code sync}: console appender on the request thread ({@code sync-logging} profile)</li>
+ *     <li>{@code async}: bounded async queue, every message kept</li>
+ *     <li>{@code sampled}: async queue plus hot-path sampling and rate limiting</li>
+ * </ul>
+ * Console output is redirected to {@code target/benchmark-logging.log} so it is really written
+ * but does not flood the JMH output.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final int SEEDED_USERS = 1_000;
+
+    @Param({"off", "sync", "async", "sampled"})
+    private String mode;
+
+    private PrintStream console;
+    private PrintStream logFile;
+    private ConfigurableApplicationContext context;
+    private UserController userController;
+    private final List<String> usernames = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path log = Path.of("target", "benchmark-logging.log");
+        Files.createDirectories(log.getParent());
+        console = System.out;
+        logFile = new PrintStream(new FileOutputStream(log.toFile(), true), false);
+        System.setOut(logFile);
+
+        context = new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(modeProperties())
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:logging;DB_CLOSE_DELAY=-1")
+                .run();
+        userController = context.getBean(UserController.class);
+
+        UserService userService = context.getBean(UserService.class);
+        List<UserRegistrationDto> registrations = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            String username = "logging" + i;
+            usernames.add(username);
+            registrations.add(UserRegistrationDto.builder()
+                    .username(username)
+                    .password("benchmark123")
+                    .email(username + "@bench.test")
+                    .firstName("Bench")
+                    .lastName("Mark")
+                    .build());
+        }
+        userService.registerUsers(registrations);
+    }
+
+    private String[] modeProperties() {
+        return switch (mode) {
+            case "off" -> new String[] {"logging.level.com.bookstore.jbehave=WARN"};
+            case "sync" -> new String[] {"spring.profiles.active=sync-logging", "logging.hot-path.max-per-second=0"};
+            case "async" -> new String[] {"logging.hot-path.max-per-second=0"};
+            case "sampled" -> new String[] {"logging.hot-path.sample-every=10", "logging.hot-path.max-per-second=200"};
+            default -> throw new IllegalArgumentException("Unknown logging mode: " + mode);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(console);
+        logFile.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<User> getUserByUsername() {
+        return userController.getUserByUsername(usernames.get(ThreadLocalRandom.current().nextInt(usernames.size())),
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+}
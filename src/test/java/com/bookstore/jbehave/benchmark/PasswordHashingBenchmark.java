@@ -0,0 +1,52 @@
+package com.bookstore.jbehave.benchmark;
+
+import com.bookstore.jbehave.service.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the BCrypt cost factor. {@code hash} runs on every core at once, so its score is the
+ * most registrations per second this machine can hash at that cost; {@code hashOnPool} goes
+ * through {@link PasswordHasher} and shows the pool's overhead. Pick the highest cost whose
+ * score still exceeds the target registration rate with headroom (e.g. 2x), keeping in mind
+ * that each step of the cost doubles the work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hasher = new PasswordHasher(new SimpleMeterRegistry(), cost, 0, 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public String hash() {
+        return encoder.encode("benchmark123");
+    }
+
+    @Benchmark
+    public String hashOnPool() {
+        return hasher.hash("benchmark123");
+    }
+}
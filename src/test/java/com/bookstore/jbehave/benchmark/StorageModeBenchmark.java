@@ -0,0 +1,198 @@
+package com.bookstore.jbehave.benchmark;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.dto.UserPageDto;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.service.StartupWarmup;
+import com.bookstore.jbehave.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory H2 against the file-backed {@code persistent} profile with a multi-million-user
+ * database:
+ * <ul>
+ *     <li>{@code coldStart}: time from launch until the context is ready. {@code memory} always
+ *     starts empty; {@code file} reopens the seeded database with the background warmup, and
+ *     {@code file-blocking-warmup} loads the in-memory indexes before reporting ready</li>
+ *     <li>{@code readPage} and {@code register}: steady-state throughput once everything is
+ *     loaded, with the same number of users in both modes</li>
+ * </ul>
+ * Seeded databases are kept under {@code target/benchmark-storage} and reused across runs.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageModeBenchmark {
+
+    private static final Path STORAGE = Path.of("target", "benchmark-storage");
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class ColdStart {
+
+        @Param({"memory", "file", "file-blocking-warmup"})
+        private String mode;
+
+        @Param({"2000000"})
+        private int users;
+
+        private final AtomicLong launches = new AtomicLong();
+        private Path database;
+        private ConfigurableApplicationContext context;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if (!mode.equals("memory")) {
+                database = prepareFileDatabase("cold", users);
+            }
+        }
+
+        ConfigurableApplicationContext launch() {
+            SpringApplicationBuilder builder = application();
+            if (mode.equals("memory")) {
+                // No DB_CLOSE_DELAY, so each launch starts from an empty database like a restart would
+                builder.properties("spring.datasource.url=jdbc:h2:mem:cold" + launches.incrementAndGet());
+            } else {
+                builder.properties(fileProperties(database));
+                if (mode.equals("file-blocking-warmup")) {
+                    builder.properties("startup.warmup.async=false");
+                }
+            }
+            context = builder.run();
+            return context;
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() {
+            if (context != null) {
+                // Let a background warmup finish rather than fail against a closing context
+                context.getBean(StartupWarmup.class).completion().exceptionally(error -> null).join();
+                context.close();
+                context = null;
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Running {
+
+        @Param({"memory", "file"})
+        private String mode;
+
+        @Param({"2000000"})
+        private int users;
+
+        private final AtomicLong sequence = new AtomicLong();
+        private ConfigurableApplicationContext context;
+        private UserService userService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if (mode.equals("memory")) {
+                context = application()
+                        .properties("spring.datasource.url=jdbc:h2:mem:steady;DB_CLOSE_DELAY=-1")
+                        .run();
+                seed(context.getBean(DataSource.class), users);
+            } else {
+                context = application().properties(fileProperties(prepareFileDatabase("steady", users))).run();
+            }
+            context.getBean(StartupWarmup.class).completion().join();
+            userService = context.getBean(UserService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public ConfigurableApplicationContext coldStart(ColdStart state) {
+        return state.launch();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(4)
+    public UserPageDto readPage(Running state) {
+        return state.userService.findUsersAfter(ThreadLocalRandom.current().nextInt(state.users - PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(4)
+    public String register(Running state) {
+        String username = "storage" + state.sequence.incrementAndGet() + "-" + System.nanoTime();
+        return state.userService.registerUser(UserRegistrationDto.builder()
+                .username(username)
+                .password("benchmark123")
+                .email(username + "@bench.test")
+                .firstName("Bench")
+                .lastName("Mark")
+                .build());
+    }
+
+    private static SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "password.hashing.cost=4",
+                        "logging.level.root=WARN");
+    }
+
+    private static String[] fileProperties(Path database) {
+        return new String[] {"spring.profiles.active=persistent", "storage.file.path=" + database.toAbsolutePath()};
+    }
+
+    /**
+     * Creates a file database with {@code users} users unless one from an earlier run exists.
+     */
+    private static Path prepareFileDatabase(String name, int users) throws IOException {
+        Path directory = STORAGE.resolve(name + "-" + users);
+        Path database = directory.resolve("users");
+        Path marker = directory.resolve("seeded");
+        if (Files.exists(marker)) {
+            return database;
+        }
+        Files.createDirectories(directory);
+        try (ConfigurableApplicationContext context = application().properties(fileProperties(database)).run()) {
+            seed(context.getBean(DataSource.class), users);
+        }
+        Files.createFile(marker);
+        return database;
+    }
+
+    /**
+     * Inserts users straight through SQL; hashing millions of passwords would take far longer
+     * than the benchmark itself. All seeded users share one hash.
+     */
+    private static void seed(DataSource dataSource, int users) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        String passwordHash = new BCryptPasswordEncoder(4).encode("benchmark123");
+        jdbc.update("INSERT INTO users (id, username, password, email, first_name, last_name, status, created_at, updated_at) "
+                + "SELECT X, 'seed' || X, ?, 'seed' || X || '@bench.test', 'Bench', 'Mark', 'ACTIVE', "
+                + "LOCALTIMESTAMP, LOCALTIMESTAMP FROM SYSTEM_RANGE(1, ?)", passwordHash, users);
+        // Ids are handed out in pooled blocks ending at the sequence value, so leave a block of headroom
+        jdbc.execute("ALTER SEQUENCE users_seq RESTART WITH " + (users + 100));
+    }
+}
@@ -0,0 +1,146 @@
+package com.bookstore.jbehave.benchmark;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.model.User;
+import com.bookstore.jbehave.repository.UserRepository;
+import com.bookstore.jbehave.service.UserService;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * Service and repository hot paths against an embedded H2 database, with the external
+ * API stubbed locally by WireMock. Each benchmark runs in its own fork with a fresh context.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    @Param({"1000"})
+    private int seededUsers;
+
+    private WireMockServer upstream;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<User> seeded = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upstream = new WireMockServer(wireMockConfig()
+                .dynamicPort()
+                .extensions(new ResponseTemplateTransformer(false)));
+        upstream.start();
+        upstream.stubFor(get(urlPathMatching("/users/\\d+"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": {{request.path.[1]}}, \"name\": \"Bench Mark\", "
+                                + "\"username\": \"upstream{{request.path.[1]}}\", "
+                                + "\"email\": \"upstream{{request.path.[1]}}@stub.test\", "
+                                + "\"phone\": \"+15550100\"}")
+                        .withTransformers("response-template")));
+
+        context = new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "external.api.base-url=" + upstream.baseUrl(),
+                        "logging.level.root=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        List<UserRegistrationDto> registrations = new ArrayList<>(seededUsers);
+        for (int i = 0; i < seededUsers; i++) {
+            registrations.add(registration("seed" + i, false, null));
+        }
+        userService.registerUsers(registrations);
+        for (int i = 0; i < seededUsers; i++) {
+            seeded.add(userRepository.findByUsername("seed" + i).orElseThrow());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        upstream.stop();
+    }
+
+    @Benchmark
+    public String registerUser() {
+        return userService.registerUser(registration("bench" + sequence.incrementAndGet(), false, null));
+    }
+
+    @Benchmark
+    public String registerUserWithExternalData() {
+        long n = sequence.incrementAndGet();
+        return userService.registerUser(registration("external" + n, true, n));
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return userService.findByUsername(randomSeeded().getUsername());
+    }
+
+    @Benchmark
+    public Optional<User> repositoryFindByUsername() {
+        return userRepository.findByUsername(randomSeeded().getUsername());
+    }
+
+    @Benchmark
+    public boolean repositoryExistsByUsername() {
+        return userRepository.existsByUsername(randomSeeded().getUsername());
+    }
+
+    @Benchmark
+    public String updateUser() {
+        User user = randomSeeded();
+        UserRegistrationDto update = registration(user.getUsername(), false, null);
+        update.setEmail(user.getEmail());
+        update.setPhoneNumber("+1555" + (1_000_000 + ThreadLocalRandom.current().nextInt(8_999_999)));
+        return userService.updateUser(user.getId(), update);
+    }
+
+    @Benchmark
+    public List<User> findAllUsers() {
+        return userService.findAllUsers();
+    }
+
+    private User randomSeeded() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+
+    private static UserRegistrationDto registration(String username, boolean importFromExternal, Long externalUserId) {
+        return UserRegistrationDto.builder()
+                .username(username)
+                .password("benchmark123")
+                .email(username + "@bench.test")
+                .firstName("Bench")
+                .lastName("Mark")
+                .importFromExternal(importFromExternal)
+                .externalUserId(externalUserId)
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.bookstore.jbehave.config;
+
+import org.jbehave.core.configuration.Configuration;
+import org.jbehave.core.steps.AbstractStepsFactory;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Steps factory that creates step instances through the shared Spring context, so their
+ * {@code @Autowired} fields are injected. Each story thread gets its own instances,
+ * because step classes keep per-scenario state in fields.
+ */
+public class SpringContextStepsFactory extends AbstractStepsFactory {
+
+    private final List<Class<?>> stepsTypes;
+    private final AutowireCapableBeanFactory beanFactory;
+    private final ThreadLocal<Map<Class<?>, Object>> instances = ThreadLocal.withInitial(HashMap::new);
+
+    public SpringContextStepsFactory(Configuration configuration, Class<?>... stepsTypes) {
+        super(configuration);
+        this.stepsTypes = List.of(stepsTypes);
+        this.beanFactory = StoryContext.applicationContext().getAutowireCapableBeanFactory();
+    }
+
+    @Override
+    protected List<Class<?>> stepsTypes() {
+        return stepsTypes;
+    }
+
+    @Override
+    public Object createInstanceOfType(Class<?> type) {
+        return instances.get().computeIfAbsent(type, beanFactory::createBean);
+    }
+}
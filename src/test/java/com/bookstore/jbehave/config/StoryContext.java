@@ -0,0 +1,65 @@
+package com.bookstore.jbehave.config;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import org.jbehave.core.configuration.Configuration;
+import org.jbehave.core.configuration.MostUsefulConfiguration;
+import org.jbehave.core.failures.FailingUponPendingStep;
+import org.jbehave.core.io.LoadFromClasspath;
+import org.jbehave.core.reporters.StoryReporterBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+/**
+ * JVM-wide story infrastructure: one Spring application context and one JBehave
+ * configuration, created on first use and shared by every story runner.
+ * External API calls go to a local {@link JsonPlaceholderStub}, so stories never need the internet.
+ */
+public final class StoryContext {
+
+    private StoryContext() {
+    }
+
+    public static ConfigurableApplicationContext applicationContext() {
+        return ApplicationContextHolder.CONTEXT;
+    }
+
+    public static Configuration configuration() {
+        return ConfigurationHolder.CONFIGURATION;
+    }
+
+    // Holder classes give lazy, thread-safe initialization without locking on every access
+    private static final class ApplicationContextHolder {
+        private static final JsonPlaceholderStub UPSTREAM = new JsonPlaceholderStub(UpstreamProfile.fromSystemProperties()).start();
+        private static final ConfigurableApplicationContext CONTEXT = new SpringApplicationBuilder(JbehaveApplication.class)
+                .profiles("test")
+                .listeners(event -> {
+                    if (event instanceof ContextClosedEvent) {
+                        UPSTREAM.close();
+                    }
+                })
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "external.api.base-url=" + UPSTREAM.baseUrl(),
+                        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "password.hashing.cost=4",
+                        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + SqlStatementRecorder.class.getName(),
+                        "logging.level.com.bookstore.jbehave=DEBUG",
+                        "logging.level.org.springframework.web.reactive.function.client=DEBUG")
+                .registerShutdownHook(true)
+                .run();
+    }
+
+    private static final class ConfigurationHolder {
+        private static final Configuration CONFIGURATION = new MostUsefulConfiguration()
+                .useStoryLoader(new LoadFromClasspath(StoryContext.class))
+                // A step without a matching method fails the scenario instead of silently passing
+                .usePendingStepStrategy(new FailingUponPendingStep())
+                .useStoryReporterBuilder(new StoryReporterBuilder()
+                        .withDefaultFormats());
+    }
+}
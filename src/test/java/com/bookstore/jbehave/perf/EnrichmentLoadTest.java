@@ -0,0 +1,113 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.controller.UserController;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.Latency;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures registrations that import external data against the local JSONPlaceholder
+ * stand-in: throughput with a long-tailed, slightly flaky upstream, and latency when the
+ * upstream is slower than the configured timeout. Run with {@code ./mvnw test -Pperf};
+ * results go to {@code target/perf/enrichment.csv}.
+ */
+@Slf4j
+class EnrichmentLoadTest {
+
+    private static final int CLIENTS = 100;
+    private static final Duration DURATION = Duration.ofSeconds(10);
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    void enrichmentThroughputAndTimeouts() throws Exception {
+        UpstreamProfile healthy = UpstreamProfile.builder()
+                .users(Integer.MAX_VALUE)
+                .latency(Latency.logNormal(50, 0.5))
+                .errorRate(0.01)
+                .payloadBytes(2_048)
+                .build();
+        UpstreamProfile stalled = healthy.toBuilder()
+                .latency(Latency.fixed(TIMEOUT.toMillis() * 4))
+                .errorRate(0)
+                .build();
+
+        try (JsonPlaceholderStub upstream = new JsonPlaceholderStub(healthy).start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(JbehaveApplication.class)
+                     .properties(
+                             "spring.main.web-application-type=none",
+                             "spring.datasource.url=jdbc:h2:mem:enrichment;DB_CLOSE_DELAY=-1",
+                             "external.api.base-url=" + upstream.baseUrl(),
+                             "external.api.timeout=" + TIMEOUT.toMillis() + "ms",
+                             "logging.level.com.bookstore.jbehave=WARN")
+                     .run()) {
+            UserController controller = context.getBean(UserController.class);
+
+            LongAdder enriched = new LongAdder();
+            LoadReport healthyRun = LoadGenerator.run("enrichment", CLIENTS, DURATION,
+                    () -> register(controller, enriched));
+            log.info("{} ({} enriched, {} upstream errors injected)", healthyRun.summary(), enriched.sum(),
+                    upstream.injectedErrorCount());
+
+            upstream.use(stalled);
+            LongAdder enrichedWhileStalled = new LongAdder();
+            LoadReport stalledRun = LoadGenerator.run("enrichment timeout", CLIENTS, DURATION,
+                    () -> register(controller, enrichedWhileStalled));
+            log.info("{} ({} enriched)", stalledRun.summary(), enrichedWhileStalled.sum());
+
+            Path report = Path.of("target", "perf", "enrichment.csv");
+            Files.createDirectories(report.getParent());
+            Files.writeString(report, "run,requests,throughput,error_pct,p50_ms,p99_ms,max_ms\n"
+                    + toCsv(healthyRun) + toCsv(stalledRun));
+            healthyRun.writeDistribution(report.getParent());
+            stalledRun.writeDistribution(report.getParent());
+
+            assertTrue(healthyRun.errorRatePercent() < 1, "Upstream errors should fall back, not fail registration");
+            assertEquals(0, enrichedWhileStalled.sum(), "A stalled upstream should never enrich");
+            assertTrue(stalledRun.errorRatePercent() < 1, "Timed-out lookups should fall back to plain registration");
+            assertTrue(stalledRun.percentileMillis(99) < TIMEOUT.toMillis() * 2,
+                    "Registrations should not wait much beyond the upstream timeout");
+        }
+    }
+
+    private boolean register(UserController controller, LongAdder enriched) {
+        long n = sequence.incrementAndGet();
+        ResponseEntity<String> response = controller.registerUser(UserRegistrationDto.builder()
+                .username("enrich" + n)
+                .password("password123")
+                .email("enrich" + n + "@load.test")
+                .importFromExternal(true)
+                .externalUserId(n)
+                .build()).block();
+        if (response == null || response.getStatusCode().value() != 201) {
+            return false;
+        }
+        if (response.getBody() != null && response.getBody().contains("with external data")) {
+            enriched.increment();
+        }
+        return true;
+    }
+
+    private static String toCsv(LoadReport report) {
+        return String.format("%s,%d,%.1f,%.2f,%.1f,%.1f,%.1f%n", report.operation(), report.requests(),
+                report.throughput(), report.errorRatePercent(), report.percentileMillis(50),
+                report.percentileMillis(99), report.histogram().getMaxValue() / 1e6);
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.dto.ExternalImportProgressDto;
+import com.bookstore.jbehave.service.UserService;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports every user from the local upstream stand-in at several batch sizes and records
+ * throughput, then re-runs the import to check that existing users are skipped.
+ * Run with {@code ./mvnw test -Pperf}; results go to {@code target/perf/external-import.csv}.
+ */
+@Slf4j
+class ExternalImportLoadTest {
+
+    private static final int USERS = 20_000;
+    private static final int[] BATCH_SIZES = {50, 500, 5_000};
+
+    @Test
+    void importThroughputScalesWithBatchSize() throws Exception {
+        StringBuilder csv = new StringBuilder("batch_size,users,elapsed_ms,users_per_second\n");
+        double[] throughput = new double[BATCH_SIZES.length];
+
+        try (JsonPlaceholderStub upstream = new JsonPlaceholderStub(UpstreamProfile.builder().users(USERS).build()).start()) {
+            for (int i = 0; i < BATCH_SIZES.length; i++) {
+                int batchSize = BATCH_SIZES[i];
+                try (ConfigurableApplicationContext context = start(upstream, "import" + batchSize)) {
+                    UserService userService = context.getBean(UserService.class);
+
+                    ExternalImportProgressDto result = userService.importExternalUsers(batchSize)
+                            .blockLast(Duration.ofMinutes(5));
+                    assertTrue(result.isDone() && result.getError() == null, "Import should complete: " + result);
+                    assertEquals(USERS, result.getImported(), "Every upstream user should be imported");
+                    throughput[i] = result.getImported() * 1000.0 / Math.max(1, result.getElapsedMillis());
+                    log.info("batch size {}: {} users in {} ms ({} users/s)", batchSize, result.getImported(),
+                            result.getElapsedMillis(), Math.round(throughput[i]));
+                    csv.append(String.format("%d,%d,%d,%.0f%n", batchSize, result.getImported(),
+                            result.getElapsedMillis(), throughput[i]));
+
+                    ExternalImportProgressDto rerun = userService.importExternalUsers(batchSize)
+                            .blockLast(Duration.ofMinutes(5));
+                    assertEquals(0, rerun.getImported(), "A repeated import should not create users");
+                    assertEquals(USERS, rerun.getDuplicates(), "A repeated import should skip every user");
+                }
+            }
+        }
+
+        Path report = Path.of("target", "perf", "external-import.csv");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, csv);
+
+        assertTrue(throughput[1] > throughput[0], "Larger batches should import faster than batches of 50");
+    }
+
+    private static ConfigurableApplicationContext start(JsonPlaceholderStub upstream, String database) {
+        return new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "external.api.base-url=" + upstream.baseUrl(),
+                        "external.api.timeout=60s",
+                        "logging.level.com.bookstore.jbehave=WARN")
+                .run();
+    }
+}
@@ -0,0 +1,109 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.service.ExternalCallGuard;
+import com.bookstore.jbehave.service.ExternalUserService;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.Latency;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises the resilience layer against the local upstream stand-in: tail latency of external
+ * lookups with and without hedging when a few responses are very slow, and fail-fast behavior
+ * once the circuit breaker opens. Run with {@code ./mvnw test -Pperf}; results go to
+ * {@code target/perf/external-resilience.csv}.
+ */
+@Slf4j
+class ExternalResilienceLoadTest {
+
+    private static final int CLIENTS = 20;
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    void hedgingCutsTailLatency() throws Exception {
+        // 3% of responses stall for a second: p99 without hedging lands in the slow mode
+        UpstreamProfile bimodal = UpstreamProfile.builder()
+                .users(Integer.MAX_VALUE)
+                .latency(Latency.bimodal(Latency.uniform(5, 15), Latency.fixed(1_000), 0.03))
+                .build();
+
+        try (JsonPlaceholderStub upstream = new JsonPlaceholderStub(bimodal).start()) {
+            LoadReport plain = lookups(upstream, false, "lookup unhedged");
+            LoadReport hedged = lookups(upstream, true, "lookup hedged");
+
+            Path report = Path.of("target", "perf", "external-resilience.csv");
+            Files.createDirectories(report.getParent());
+            Files.writeString(report, "run,requests,throughput,error_pct,p50_ms,p99_ms\n"
+                    + toCsv(plain) + toCsv(hedged));
+
+            assertTrue(hedged.percentileMillis(99) < plain.percentileMillis(99) / 2,
+                    "Hedging should cut p99 lookup latency at least in half");
+        }
+    }
+
+    @Test
+    void openCircuitFailsFast() throws Exception {
+        UpstreamProfile failing = UpstreamProfile.builder()
+                .users(Integer.MAX_VALUE)
+                .latency(Latency.fixed(200))
+                .errorRate(1.0)
+                .build();
+
+        try (JsonPlaceholderStub upstream = new JsonPlaceholderStub(failing).start();
+             ConfigurableApplicationContext context = start(upstream, false)) {
+            ExternalUserService externalUserService = context.getBean(ExternalUserService.class);
+            LoadReport run = LoadGenerator.run("lookup failing upstream", CLIENTS, Duration.ofSeconds(5),
+                    () -> externalUserService.getUserById(sequence.incrementAndGet()).block() != null);
+            log.info("{} ({} upstream requests)", run.summary(), upstream.requestCount());
+
+            assertEquals(CircuitBreaker.State.OPEN, context.getBean(ExternalCallGuard.class).circuitState());
+            assertTrue(upstream.requestCount() < run.requests() / 10,
+                    "Most calls should be rejected by the open circuit without reaching the upstream");
+            assertTrue(run.percentileMillis(50) < 10, "Rejected calls should fail fast");
+        }
+    }
+
+    private LoadReport lookups(JsonPlaceholderStub upstream, boolean hedging, String name) throws Exception {
+        try (ConfigurableApplicationContext context = start(upstream, hedging)) {
+            ExternalUserService externalUserService = context.getBean(ExternalUserService.class);
+            LoadReport run = LoadGenerator.run(name, CLIENTS, DURATION,
+                    () -> externalUserService.getUserById(sequence.incrementAndGet()).block() != null);
+            log.info(run.summary());
+            run.writeDistribution(Path.of("target", "perf"));
+            return run;
+        }
+    }
+
+    private static ConfigurableApplicationContext start(JsonPlaceholderStub upstream, boolean hedging) {
+        return new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:resilience;DB_CLOSE_DELAY=-1",
+                        "external.api.base-url=" + upstream.baseUrl(),
+                        "external.resilience.hedge.enabled=" + hedging,
+                        "external.resilience.hedge.percentile=0.9",
+                        "logging.level.com.bookstore.jbehave=WARN")
+                .run();
+    }
+
+    private static String toCsv(LoadReport report) {
+        return String.format("%s,%d,%.1f,%.2f,%.1f,%.1f%n", report.operation(), report.requests(),
+                report.throughput(), report.errorRatePercent(), report.percentileMillis(50),
+                report.percentileMillis(99));
+    }
+}
@@ -0,0 +1,120 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.dto.ExternalUserDto;
+import com.bookstore.jbehave.service.JsonArrayDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decodes a synthetic 500 MB JSON array of users, delivered in network-sized chunks, and checks
+ * that heap usage after GC stays flat while the whole payload streams through.
+ * Run with {@code ./mvnw test -Pperf}.
+ */
+@Slf4j
+class LargePayloadDecodeLoadTest {
+
+    private static final long PAYLOAD_BYTES = 500L * 1024 * 1024;
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final long SAMPLE_EVERY = 100_000;
+    // Headroom for the parser, one chunk, one element and measurement noise
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void decodesHalfAGigabyteInConstantHeap() {
+        JsonArrayDecoder decoder = new JsonArrayDecoder(objectMapper, 64 * 1024);
+        AtomicLong generatedUsers = new AtomicLong();
+        AtomicLong decodedUsers = new AtomicLong();
+        AtomicLong peakHeap = new AtomicLong();
+
+        long baseline = heapAfterGc();
+        long start = System.nanoTime();
+        decoder.decode(payload(generatedUsers), ExternalUserDto.class)
+                .doOnNext(user -> {
+                    long count = decodedUsers.incrementAndGet();
+                    if (user.getId() != count) {
+                        throw new IllegalStateException("Out of order element " + user.getId() + " at " + count);
+                    }
+                    if (count % SAMPLE_EVERY == 0) {
+                        peakHeap.accumulateAndGet(heapAfterGc(), Math::max);
+                    }
+                })
+                .blockLast();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long growth = peakHeap.get() - baseline;
+        log.info("Decoded {} users ({} MB) in {} s; heap after GC grew by at most {} KB",
+                decodedUsers.get(), PAYLOAD_BYTES / (1024 * 1024), String.format("%.1f", seconds), growth / 1024);
+        assertEquals(generatedUsers.get(), decodedUsers.get(), "Every generated user should be decoded");
+        assertTrue(decodedUsers.get() > 2 * SAMPLE_EVERY, "Payload should span several heap samples");
+        assertTrue(growth < MAX_HEAP_GROWTH_BYTES,
+                "Heap should stay flat while decoding, but grew by " + growth / 1024 + " KB");
+    }
+
+    /**
+     * Lazily generated JSON array of about {@link #PAYLOAD_BYTES}, split into fixed-size chunks
+     * that cut through elements at arbitrary positions, like network buffers do.
+     */
+    private Flux<DataBuffer> payload(AtomicLong generatedUsers) {
+        DataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+        return Flux.<byte[], long[]>generate(() -> new long[]{0}, (produced, sink) -> {
+            if (produced[0] >= PAYLOAD_BYTES) {
+                sink.complete();
+                return produced;
+            }
+            StringBuilder chunk = new StringBuilder(CHUNK_BYTES + 1024);
+            if (produced[0] == 0) {
+                chunk.append('[');
+            }
+            while (chunk.length() < CHUNK_BYTES && produced[0] + chunk.length() < PAYLOAD_BYTES) {
+                long id = generatedUsers.incrementAndGet();
+                if (id > 1) {
+                    chunk.append(',');
+                }
+                chunk.append(userJson(id));
+            }
+            if (produced[0] + chunk.length() >= PAYLOAD_BYTES) {
+                chunk.append(']');
+            }
+            byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            produced[0] += bytes.length;
+            sink.next(bytes);
+            return produced;
+        })
+                // Split unevenly so element boundaries never line up with buffer boundaries
+                .concatMapIterable(bytes -> List.of(
+                        buffers.wrap(Arrays.copyOfRange(bytes, 0, bytes.length / 3)),
+                        buffers.wrap(Arrays.copyOfRange(bytes, bytes.length / 3, bytes.length))), 1);
+    }
+
+    private static String userJson(long id) {
+        return "{\"id\":" + id + ",\"name\":\"Stream User " + id + "\",\"username\":\"stream" + id
+                + "\",\"email\":\"stream" + id + "@stub.test\",\"phone\":\"+1555" + id + "\","
+                + "\"address\":{\"street\":\"Main St\",\"city\":\"Stubville\",\"zipcode\":\"00000\","
+                + "\"geo\":{\"lat\":\"0\",\"lng\":\"0\"}},\"website\":\"stub.test\","
+                + "\"company\":{\"name\":\"Stub Inc\",\"catchPhrase\":\"Streaming\",\"bs\":\"decode\"}}";
+    }
+
+    private long heapAfterGc() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,57 @@
+package com.bookstore.jbehave.perf;
+
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load engine: each client repeatedly runs the operation until the duration
+ * elapses, and every call's latency is recorded into an HdrHistogram.
+ * An operation signals failure by returning false or throwing.
+ */
+public final class LoadGenerator {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private LoadGenerator() {
+    }
+
+    public static LoadReport run(String operationName, int clients, Duration duration,
+                                 Callable<Boolean> operation) throws InterruptedException {
+        Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        LongAdder successes = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        boolean success;
+                        try {
+                            success = Boolean.TRUE.equals(operation.call());
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        recorder.recordValue(System.nanoTime() - sent);
+                        if (success) {
+                            successes.increment();
+                        } else {
+                            failures.increment();
+                        }
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        return new LoadReport(operationName, clients, elapsed, recorder.getIntervalHistogram(),
+                successes.sum(), failures.sum());
+    }
+}
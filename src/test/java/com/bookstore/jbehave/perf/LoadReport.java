@@ -0,0 +1,51 @@
+package com.bookstore.jbehave.perf;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Latency distribution and outcome counts of one load run.
+ */
+public record LoadReport(String operation, int clients, Duration elapsed, Histogram histogram,
+                         long successes, long failures) {
+
+    public long requests() {
+        return successes + failures;
+    }
+
+    public double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    public double errorRatePercent() {
+        return requests() == 0 ? 0 : failures * 100.0 / requests();
+    }
+
+    public double throughput() {
+        return requests() / (elapsed.toNanos() / 1e9);
+    }
+
+    public String summary() {
+        return String.format("%s: %d clients, %d requests in %.1fs (%.1f req/s), errors %.2f%%, "
+                        + "p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                operation, clients, requests(), elapsed.toNanos() / 1e9, throughput(), errorRatePercent(),
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9), histogram.getMaxValue() / 1e6);
+    }
+
+    /**
+     * Writes the full percentile distribution (in milliseconds) in HdrHistogram's .hgrm format.
+     */
+    public Path writeDistribution(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(operation.replace(' ', '-') + "-latency.hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1e6);
+        }
+        return file;
+    }
+}
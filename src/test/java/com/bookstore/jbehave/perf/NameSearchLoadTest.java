@@ -0,0 +1,120 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.service.UserSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures first-page latency of the trigram name index against a linear substring scan
+ * (what {@code LIKE %name%} does) as the number of users grows to millions.
+ * Run with {@code ./mvnw test -Pperf}; results go to {@code target/perf/name-search.csv}.
+ */
+@Slf4j
+class NameSearchLoadTest {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000, 2_000_000};
+    // "qiz" matches no name, so the scan has to read the whole table for it, as LIKE would
+    private static final String[] QUERIES = {"ann", "son", "mar", "el", "kin", "qiz"};
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 200;
+    // Allowed growth of the index p50 from the smallest to the largest size (200x more users)
+    private static final double MAX_INDEX_GROWTH = 3.0;
+    private static final String[] SYLLABLES = {
+            "an", "na", "mar", "son", "el", "ri", "ka", "to", "lin", "be", "ro", "kin", "da", "vi", "jo", "sa"
+    };
+
+    @Test
+    void indexLatencyStaysFlatAsTableGrows() throws Exception {
+        StringBuilder csv = new StringBuilder("users,index_p50_us,index_p99_us,scan_p50_us,scan_p99_us\n");
+        Random random = new Random(42);
+        double firstIndexP50 = 0;
+        double lastIndexP50 = 0;
+        double lastScanP50 = 0;
+        double lastIndexP99 = 0;
+        double lastScanP99 = 0;
+
+        for (int size : SIZES) {
+            String[] firstNames = new String[size];
+            String[] lastNames = new String[size];
+            UserSearchIndex index = new UserSearchIndex(null, null);
+            for (int i = 0; i < size; i++) {
+                firstNames[i] = randomName(random);
+                lastNames[i] = randomName(random);
+                index.index((long) i + 1, firstNames[i], lastNames[i]);
+            }
+
+            long[] indexLatencies = new long[ITERATIONS];
+            long[] scanLatencies = new long[ITERATIONS];
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                String query = QUERIES[iteration % QUERIES.length];
+
+                long start = System.nanoTime();
+                int found = 0;
+                long cursor = 0;
+                while (found < PAGE_SIZE) {
+                    long[] candidates = index.candidates(query, false, cursor, PAGE_SIZE * 2);
+                    if (candidates.length == 0) {
+                        break;
+                    }
+                    for (long id : candidates) {
+                        int row = (int) id - 1;
+                        if (UserSearchIndex.matches(query, false, firstNames[row], lastNames[row])) {
+                            found++;
+                        }
+                    }
+                    cursor = candidates[candidates.length - 1];
+                }
+                indexLatencies[iteration] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int scanned = 0;
+                for (int row = 0; row < size && scanned < PAGE_SIZE; row++) {
+                    if (UserSearchIndex.matches(query, false, firstNames[row], lastNames[row])) {
+                        scanned++;
+                    }
+                }
+                scanLatencies[iteration] = System.nanoTime() - start;
+            }
+
+            Arrays.sort(indexLatencies);
+            Arrays.sort(scanLatencies);
+            lastIndexP50 = indexLatencies[ITERATIONS / 2] / 1e3;
+            lastScanP50 = scanLatencies[ITERATIONS / 2] / 1e3;
+            lastIndexP99 = indexLatencies[ITERATIONS * 99 / 100] / 1e3;
+            lastScanP99 = scanLatencies[ITERATIONS * 99 / 100] / 1e3;
+            if (firstIndexP50 == 0) {
+                firstIndexP50 = lastIndexP50;
+            }
+            String row = String.format("%d,%.1f,%.1f,%.1f,%.1f", size,
+                    lastIndexP50, lastIndexP99, lastScanP50, lastScanP99);
+            log.info("name search {}", row);
+            csv.append(row).append('\n');
+        }
+
+        Path report = Path.of("target", "perf", "name-search.csv");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, csv);
+
+        assertTrue(lastIndexP50 <= firstIndexP50 * MAX_INDEX_GROWTH,
+                String.format("Index p50 should stay flat as the table grows %dx, but went from %.1f us to %.1f us",
+                        SIZES[SIZES.length - 1] / SIZES[0], firstIndexP50, lastIndexP50));
+        assertTrue(lastIndexP99 < lastScanP99, "Index lookups should beat a full scan for rare terms at the largest size");
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int parts = 2 + random.nextInt(2);
+        for (int i = 0; i < parts; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.dto.UserPageDto;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.service.UserService;
+import com.bookstore.jbehave.stub.H2Replicator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs keyset page reads against a primary H2 database with two replicas fed by
+ * {@link H2Replicator}: first with both replicas current, then with replication paused until
+ * they are staler than the configured bound. Reads must be spread over the replicas in the
+ * first run and fall back to the primary in the second, without errors in either.
+ * Run with {@code ./mvnw test -Pperf}; results go to {@code target/perf/read-replicas.csv}.
+ */
+@Slf4j
+class ReadReplicaLoadTest {
+
+    private static final int CLIENTS = 50;
+    private static final int SEEDED_USERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final Duration DURATION = Duration.ofSeconds(10);
+    private static final Duration MAX_STALENESS = Duration.ofMillis(500);
+    private static final Duration REPLICATION_INTERVAL = Duration.ofMillis(100);
+    private static final String PRIMARY_URL = "jdbc:h2:mem:replicated-primary;DB_CLOSE_DELAY=-1";
+    private static final String[] REPLICA_URLS = {
+            "jdbc:h2:mem:replica-0;DB_CLOSE_DELAY=-1", "jdbc:h2:mem:replica-1;DB_CLOSE_DELAY=-1"
+    };
+
+    @Test
+    void readsUseCurrentReplicasAndFallBackWhenStale() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=" + PRIMARY_URL,
+                        "datasource.replicas.enabled=true",
+                        "datasource.replicas.urls=" + String.join(",", REPLICA_URLS),
+                        "datasource.replicas.selection=round-robin",
+                        "datasource.replicas.max-staleness=" + MAX_STALENESS.toMillis() + "ms",
+                        "datasource.replicas.lag-query=" + H2Replicator.LAG_QUERY,
+                        "datasource.replicas.lag-check-interval=100ms",
+                        "password.hashing.cost=4",
+                        "logging.level.com.bookstore.jbehave=WARN")
+                .run()) {
+            UserService userService = context.getBean(UserService.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            seed(userService);
+
+            List<H2Replicator> replicators = new ArrayList<>();
+            try {
+                for (String replicaUrl : REPLICA_URLS) {
+                    replicators.add(new H2Replicator(PRIMARY_URL, replicaUrl, "sa", "password", REPLICATION_INTERVAL)
+                            .start());
+                }
+                await().atMost(Duration.ofSeconds(30)).until(() -> lagSeconds(meterRegistry, "replica-0") < 0.5
+                        && lagSeconds(meterRegistry, "replica-1") < 0.5);
+
+                double primaryBefore = routed(meterRegistry, "primary");
+                LoadReport current = LoadGenerator.run("reads with current replicas", CLIENTS, DURATION,
+                        () -> readPage(userService));
+                double replica0 = routed(meterRegistry, "replica-0");
+                double replica1 = routed(meterRegistry, "replica-1");
+                double primaryDuring = routed(meterRegistry, "primary") - primaryBefore;
+                log.info("{} (replica-0 {}, replica-1 {}, primary {})", current.summary(), replica0, replica1,
+                        primaryDuring);
+
+                replicators.forEach(H2Replicator::pause);
+                await().atMost(Duration.ofSeconds(30)).until(() -> !(lagSeconds(meterRegistry, "replica-0") < 0.5)
+                        && !(lagSeconds(meterRegistry, "replica-1") < 0.5));
+
+                double replicasBefore = routed(meterRegistry, "replica-0") + routed(meterRegistry, "replica-1");
+                primaryBefore = routed(meterRegistry, "primary");
+                LoadReport stale = LoadGenerator.run("reads with stale replicas", CLIENTS, DURATION,
+                        () -> readPage(userService));
+                double replicasWhileStale = routed(meterRegistry, "replica-0") + routed(meterRegistry, "replica-1")
+                        - replicasBefore;
+                double primaryWhileStale = routed(meterRegistry, "primary") - primaryBefore;
+                log.info("{} (replicas {}, primary {})", stale.summary(), replicasWhileStale, primaryWhileStale);
+
+                Path csv = Path.of("target", "perf", "read-replicas.csv");
+                Files.createDirectories(csv.getParent());
+                Files.writeString(csv, "run,requests,throughput,error_pct,p50_ms,p99_ms,max_ms\n"
+                        + toCsv(current) + toCsv(stale));
+                current.writeDistribution(csv.getParent());
+                stale.writeDistribution(csv.getParent());
+
+                assertEquals(0, current.errorRatePercent(), "Replica reads should not fail");
+                assertEquals(0, stale.errorRatePercent(), "Fallback reads should not fail");
+                assertTrue(replica0 > 0 && replica1 > 0, "Reads should be spread over both replicas");
+                assertTrue(primaryDuring < (replica0 + replica1) / 100, "Current replicas should take the reads");
+                assertEquals(0, replicasWhileStale, "Stale replicas should not be read");
+                assertTrue(primaryWhileStale >= stale.requests(), "Reads should fall back to the primary");
+            } finally {
+                for (H2Replicator replicator : replicators) {
+                    replicator.close();
+                }
+            }
+        }
+    }
+
+    private static void seed(UserService userService) {
+        List<UserRegistrationDto> registrations = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            registrations.add(UserRegistrationDto.builder()
+                    .username("replica" + i)
+                    .password("password123")
+                    .email("replica" + i + "@load.test")
+                    .firstName("Read")
+                    .lastName("Replica")
+                    .build());
+        }
+        for (int from = 0; from < SEEDED_USERS; from += 1_000) {
+            userService.registerUsers(registrations.subList(from, from + 1_000));
+        }
+    }
+
+    private static boolean readPage(UserService userService) {
+        UserPageDto page = userService.findUsersAfter(ThreadLocalRandom.current().nextInt(SEEDED_USERS - PAGE_SIZE),
+                PAGE_SIZE);
+        return page.getUsers().size() == PAGE_SIZE;
+    }
+
+    private static double routed(MeterRegistry meterRegistry, String target) {
+        return meterRegistry.find("datasource.read.routing").tag("target", target).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static double lagSeconds(MeterRegistry meterRegistry, String replica) {
+        return meterRegistry.get("datasource.replica.lag").tag("replica", replica).gauge().value();
+    }
+
+    private static String toCsv(LoadReport report) {
+        return String.format("%s,%d,%.1f,%.2f,%.1f,%.1f,%.1f%n", report.operation(), report.requests(),
+                report.throughput(), report.errorRatePercent(), report.percentileMillis(50),
+                report.percentileMillis(99), report.histogram().getMaxValue() / 1e6);
+    }
+}
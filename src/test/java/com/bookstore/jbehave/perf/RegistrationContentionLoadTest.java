@@ -0,0 +1,106 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.controller.UserController;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races many clients to register a handful of hot usernames while the rest register unique
+ * ones. Every hot username must be created exactly once with all other attempts answered
+ * "already exists", and no attempt may fail on the unique constraint. Run with
+ * {@code ./mvnw test -Pperf}; results go to {@code target/perf/registration-contention.csv}.
+ */
+@Slf4j
+class RegistrationContentionLoadTest {
+
+    private static final int CLIENTS = 200;
+    private static final int HOT_USERNAMES = 10;
+    private static final double HOT_SHARE = 0.5;
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, LongAdder> created = new ConcurrentHashMap<>();
+    private final LongAdder rejectedAsDuplicate = new LongAdder();
+    private final LongAdder uniqueCreated = new LongAdder();
+
+    @Test
+    void sameUsernameIsRegisteredExactlyOnce() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1",
+                        "password.hashing.cost=4",
+                        "logging.level.com.bookstore.jbehave=WARN")
+                .run()) {
+            UserController controller = context.getBean(UserController.class);
+
+            LoadReport report = LoadGenerator.run("registration contention", CLIENTS, DURATION,
+                    () -> register(controller));
+            log.info("{} ({} hot registrations, {} unique registrations, {} rejected as duplicate)",
+                    report.summary(), created.size(), uniqueCreated.sum(), rejectedAsDuplicate.sum());
+
+            Path csv = Path.of("target", "perf", "registration-contention.csv");
+            Files.createDirectories(csv.getParent());
+            Files.writeString(csv, "run,requests,throughput,error_pct,p50_ms,p99_ms,max_ms\n"
+                    + String.format("%s,%d,%.1f,%.2f,%.1f,%.1f,%.1f%n", report.operation(), report.requests(),
+                    report.throughput(), report.errorRatePercent(), report.percentileMillis(50),
+                    report.percentileMillis(99), report.histogram().getMaxValue() / 1e6));
+            report.writeDistribution(csv.getParent());
+
+            assertEquals(0, report.errorRatePercent(), "No registration should fail on the unique constraint");
+            assertEquals(HOT_USERNAMES, created.size(), "Every hot username should be registered");
+            created.forEach((username, count) ->
+                    assertEquals(1, count.sum(), username + " should be registered exactly once"));
+            assertTrue(uniqueCreated.sum() > 0, "Unrelated registrations should not be blocked by the hot ones");
+        }
+    }
+
+    /**
+     * Succeeds for a created user or an "already exists" answer; anything else, such as a 500
+     * from a constraint violation, counts as an error.
+     */
+    private boolean register(UserController controller) {
+        boolean hot = ThreadLocalRandom.current().nextDouble() < HOT_SHARE;
+        String username = hot
+                ? "hot" + ThreadLocalRandom.current().nextInt(HOT_USERNAMES)
+                : "unique" + sequence.incrementAndGet();
+        ResponseEntity<String> response = controller.registerUser(UserRegistrationDto.builder()
+                .username(username)
+                .password("password123")
+                .email(username + "@load.test")
+                .build()).block();
+        if (response == null) {
+            return false;
+        }
+        if (response.getStatusCode().value() == 201) {
+            if (hot) {
+                created.computeIfAbsent(username, key -> new LongAdder()).increment();
+            } else {
+                uniqueCreated.increment();
+            }
+            return true;
+        }
+        if (response.getStatusCode().value() == 400 && response.getBody() != null
+                && response.getBody().contains("already exists")) {
+            rejectedAsDuplicate.increment();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,151 @@
+package com.bookstore.jbehave.perf;
+
+import com.bookstore.jbehave.JbehaveApplication;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.service.UserService;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.Latency;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares platform-thread and virtual-thread request handling for enriched registrations
+ * against a slow simulated upstream. Both runs call the blocking {@link UserService#registerUser}
+ * the way a servlet container would: on a bounded pool of platform threads, or on a virtual
+ * thread per request. Run with {@code ./mvnw test -Pperf}; results are logged and written to
+ * {@code target/perf/virtual-threads.csv}.
+ */
+@Slf4j
+class VirtualThreadLoadTest {
+
+    private static final int UPSTREAM_DELAY_MS = 200;
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 2_000;
+    // Request-handling pool size for the platform-thread run, like Tomcat's worker pool
+    private static final int PLATFORM_MAX_THREADS = 50;
+
+    private static JsonPlaceholderStub upstream;
+
+    @BeforeAll
+    static void startUpstream() {
+        upstream = new JsonPlaceholderStub(UpstreamProfile.builder()
+                .users(REQUESTS)
+                .latency(Latency.fixed(UPSTREAM_DELAY_MS))
+                .build())
+                .start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        LoadResult platform = runLoad(false);
+        LoadResult virtual = runLoad(true);
+
+        log.info("mode      requests  ok    throughput(req/s)  p50(ms)  p99(ms)");
+        for (LoadResult result : new LoadResult[]{platform, virtual}) {
+            log.info(String.format("%-9s %-9d %-5d %-18.1f %-8.1f %.1f", result.mode(), REQUESTS,
+                    result.succeeded(), result.throughput(), result.p50Millis(), result.p99Millis()));
+        }
+
+        Path report = Path.of("target", "perf", "virtual-threads.csv");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, "mode,requests,succeeded,throughput,p50_ms,p99_ms\n"
+                + platform.toCsv() + virtual.toCsv());
+
+        assertEquals(REQUESTS, platform.succeeded(), "All platform-thread registrations should succeed");
+        assertEquals(REQUESTS, virtual.succeeded(), "All virtual-thread registrations should succeed");
+    }
+
+    private LoadResult runLoad(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JbehaveApplication.class)
+                .properties(
+                        "spring.main.web-application-type=none",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "external.api.base-url=" + upstream.baseUrl(),
+                        "logging.level.com.bookstore.jbehave=WARN")
+                .run()) {
+            UserService userService = context.getBean(UserService.class);
+            try (ExecutorService handlers = virtualThreads
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newFixedThreadPool(PLATFORM_MAX_THREADS)) {
+                return drive(mode, userService, handlers);
+            }
+        }
+    }
+
+    private LoadResult drive(String mode, UserService userService, ExecutorService handlers) throws Exception {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < REQUESTS) {
+                        UserRegistrationDto registration = UserRegistrationDto.builder()
+                                .username(mode + "_user" + i)
+                                .password("password123")
+                                .email(mode + "_user" + i + "@client.test")
+                                .importFromExternal(true)
+                                .externalUserId((long) i + 1)
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            Future<String> response = handlers.submit(() -> userService.registerUser(registration));
+                            if (response.get().contains("successfully")) {
+                                succeeded.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            log.warn("Request {} failed: {}", i, e.getMessage());
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                    return null;
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(10, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new LoadResult(mode, succeeded.get(), REQUESTS / (elapsed / 1e9),
+                    percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6);
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private record LoadResult(String mode, int succeeded, double throughput, double p50Millis, double p99Millis) {
+
+        String toCsv() {
+            return String.format("%s,%d,%d,%.1f,%.1f,%.1f%n", mode, REQUESTS, succeeded, throughput, p50Millis, p99Millis);
+        }
+    }
+}
@@ -1,20 +1,50 @@
 package com.bookstore.jbehave.steps;
 
+import com.bookstore.jbehave.config.SqlStatementRecorder;
 import com.bookstore.jbehave.config.TestConfig;
+import com.bookstore.jbehave.dto.BatchRegistrationResultDto;
+import com.bookstore.jbehave.dto.BatchUpdateResultDto;
+import com.bookstore.jbehave.dto.ExternalUserDto;
+import com.bookstore.jbehave.dto.UserPatchDto;
 import com.bookstore.jbehave.dto.UserRegistrationDto;
 import com.bookstore.jbehave.model.User;
 import com.bookstore.jbehave.repository.UserRepository;
+import com.bookstore.jbehave.service.ExternalCallGuard;
+import com.bookstore.jbehave.service.ExternalUserService;
+import com.bookstore.jbehave.service.JsonArrayDecoder;
+import com.bookstore.jbehave.service.UserCache;
+import com.bookstore.jbehave.service.UserMembershipIndex;
 import com.bookstore.jbehave.service.UserService;
+import com.bookstore.jbehave.stub.JsonPlaceholderStub;
+import com.bookstore.jbehave.stub.Latency;
+import com.bookstore.jbehave.stub.UpstreamProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.jbehave.core.annotations.*;
 import org.jbehave.core.model.ExamplesTable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,17 +53,46 @@ import static org.junit.jupiter.api.Assertions.*;
 @Slf4j
 public class ComponentTestSteps {
 
+    private static final Duration EXTERNAL_ERROR_TTL = Duration.ofMillis(300);
+    private static final Pattern UNIQUENESS_QUERY = Pattern.compile("^select .* from users .*(username|email)\\s*=.*", Pattern.DOTALL);
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserMembershipIndex membershipIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private WebClient webClient;
+
+    @Autowired
+    private JsonArrayDecoder jsonArrayDecoder;
+
     private UserRegistrationDto testUser;
     private String validationResult;
     private User databaseUser;
     private boolean repositoryTestsPassed = false;
     private boolean businessLogicTestsPassed = false;
+    private List<UserRegistrationDto> batchUsers;
+    private BatchRegistrationResultDto batchResult;
+    private BatchUpdateResultDto patchResult;
+    private long cacheHitsBefore;
+    private List<String> recordedSql;
+    private JsonPlaceholderStub upstream;
+    private ExternalUserService externalUserService;
+    private List<ExternalUserDto> externalLookups;
+    private Throwable externalLookupError;
+    private Boolean externalUserExists;
+    private final ScenarioUsers scenarioUsers = new ScenarioUsers();
 
     @Given("I have a complete user registration request: $userTable")
     public void givenCompleteUserRegistration(ExamplesTable userTable) {
@@ -83,11 +142,21 @@ public class ComponentTestSteps {
                 .build();
     }
 
+    @Given("I have a user registration request for \"$username\" with email \"$email\"")
+    public void givenUserWithUsernameAndEmail(String username, String email) {
+        log.info("Creating user with username: {} and email: {}", username, email);
+        testUser = UserRegistrationDto.builder()
+                .username(username)
+                .password("validpassword123")
+                .email(email)
+                .build();
+    }
+
     @When("I register the user")
     public void whenRegisterUser() {
         log.info("Registering user: {}", testUser.getUsername());
         try {
-            validationResult = userService.registerUser(testUser);
+            validationResult = scenarioUsers.register(userService, testUser);
             log.info("Registration result: {}", validationResult);
         } catch (Exception e) {
             validationResult = "validation error: " + e.getMessage();
@@ -139,7 +208,7 @@ public class ComponentTestSteps {
                 .lastName("Test")
                 .build();
         
-        String result = userService.registerUser(testUser);
+        String result = scenarioUsers.register(userService, testUser);
         assertTrue(result.contains("successfully"));
         
         Optional<User> userOptional = userService.findByUsername(testUser.getUsername());
@@ -211,10 +280,10 @@ public class ComponentTestSteps {
                     .email("business@test.com")
                     .build();
             
-            String result1 = userService.registerUser(testUser);
+            String result1 = scenarioUsers.register(userService, testUser);
             assertTrue(result1.contains("successfully"));
             
-            String result2 = userService.registerUser(testUser);
+            String result2 = scenarioUsers.register(userService, testUser);
             assertTrue(result2.contains("Username already exists"));
             
             // Test duplicate email rejection
@@ -224,7 +293,7 @@ public class ComponentTestSteps {
                     .email("business@test.com")
                     .build();
             
-            String result3 = userService.registerUser(emailDuplicate);
+            String result3 = scenarioUsers.register(userService, emailDuplicate);
             assertTrue(result3.contains("Email already exists"));
             
             businessLogicTestsPassed = true;
@@ -258,4 +327,305 @@ public class ComponentTestSteps {
         // This would be implemented with actual deletion operations
         assertTrue(businessLogicTestsPassed, "Business logic tests should pass");
     }
-}
\ No newline at end of file
+
+    @Given("I have a batch of registration requests: $userTable")
+    public void givenBatchOfRegistrations(ExamplesTable userTable) {
+        log.info("Creating batch of {} registrations from table", userTable.getRowCount());
+        batchUsers = new ArrayList<>();
+        for (Map<String, String> row : userTable.getRows()) {
+            batchUsers.add(UserRegistrationDto.builder()
+                    .username(row.get("username"))
+                    .password(row.get("password"))
+                    .email(row.get("email"))
+                    .build());
+        }
+    }
+
+    @When("I register the batch")
+    public void whenRegisterBatch() {
+        log.info("Registering batch of {} users", batchUsers.size());
+        batchUsers.forEach(user -> scenarioUsers.track(user.getUsername()));
+        batchResult = userService.registerUsers(batchUsers);
+        log.info("Batch result: {} registered, {} failed", batchResult.getRegistered(), batchResult.getFailed());
+    }
+
+    @Then("$count users in the batch should be registered")
+    public void thenBatchUsersShouldBeRegistered(int count) {
+        assertEquals(count, batchResult.getRegistered(), "Registered count. Results: " + batchResult.getResults());
+        assertEquals(batchUsers.size(), batchResult.getResults().size(), "Every item should have a result");
+        batchResult.getResults().stream()
+                .filter(BatchRegistrationResultDto.ItemResult::isSuccess)
+                .forEach(item -> assertTrue(userService.findByUsername(item.getUsername()).isPresent(),
+                        "Registered user should be stored: " + item.getUsername()));
+    }
+
+    @Then("batch item $index should fail with \"$expectedMessage\"")
+    public void thenBatchItemShouldFail(int index, String expectedMessage) {
+        BatchRegistrationResultDto.ItemResult item = batchResult.getResults().get(index);
+        assertFalse(item.isSuccess(), "Batch item " + index + " should fail");
+        assertTrue(item.getMessage().contains(expectedMessage),
+                "Should fail with: " + expectedMessage + ", but got: " + item.getMessage());
+    }
+
+    @When("I patch the user's phone number to \"$phoneNumber\"")
+    public void whenPatchPhoneNumber(String phoneNumber) {
+        log.info("Patching phone number of user {}", databaseUser.getId());
+        validationResult = userService.patchUser(databaseUser.getId(),
+                UserPatchDto.builder().phoneNumber(phoneNumber).build());
+        assertTrue(validationResult.contains("successfully"), "Patch should succeed. Result: " + validationResult);
+    }
+
+    @When("I patch the user's phone number to \"$phoneNumber\" while recording SQL")
+    public void whenPatchPhoneNumberRecordingSql(String phoneNumber) {
+        SqlStatementRecorder.start();
+        try {
+            whenPatchPhoneNumber(phoneNumber);
+        } finally {
+            recordedSql = SqlStatementRecorder.stop();
+        }
+    }
+
+    @Then("the update should set only the columns $columns")
+    public void thenUpdateShouldSetOnly(String columns) {
+        List<String> updates = recordedSql.stream()
+                .filter(sql -> sql.toLowerCase().startsWith("update users "))
+                .toList();
+        assertEquals(1, updates.size(), "Expected one UPDATE of users, got: " + recordedSql);
+        String update = updates.get(0).toLowerCase();
+        Set<String> assigned = Arrays.stream(update.substring(update.indexOf(" set ") + 5, update.indexOf(" where "))
+                        .split(","))
+                .map(assignment -> assignment.substring(0, assignment.indexOf('=')).trim())
+                .collect(Collectors.toSet());
+        Set<String> expected = Arrays.stream(columns.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        assertEquals(expected, assigned, "Columns set by: " + updates.get(0));
+    }
+
+    @Then("the user should have phone number \"$phoneNumber\"")
+    public void thenUserShouldHavePhoneNumber(String phoneNumber) {
+        User patched = userService.findById(databaseUser.getId()).orElseThrow();
+        assertEquals(phoneNumber, patched.getPhoneNumber());
+    }
+
+    @Then("the user's other details should be unchanged")
+    public void thenOtherDetailsShouldBeUnchanged() {
+        User patched = userService.findById(databaseUser.getId()).orElseThrow();
+        assertEquals(databaseUser.getUsername(), patched.getUsername());
+        assertEquals(databaseUser.getEmail(), patched.getEmail());
+        assertEquals(databaseUser.getFirstName(), patched.getFirstName());
+        assertEquals(databaseUser.getLastName(), patched.getLastName());
+        assertEquals(databaseUser.getStatus(), patched.getStatus());
+    }
+
+    @When("I bulk patch the user's last name to \"$lastName\" together with an unknown user")
+    public void whenBulkPatchWithUnknownUser(String lastName) {
+        log.info("Bulk patching user {} and an unknown user", databaseUser.getId());
+        patchResult = userService.patchUsers(List.of(
+                UserPatchDto.builder().id(databaseUser.getId()).lastName(lastName).build(),
+                UserPatchDto.builder().id(Long.MAX_VALUE).lastName(lastName).build()));
+    }
+
+    @When("I bulk patch the user's username to \"$username\"")
+    public void whenBulkPatchUsername(String username) {
+        patchResult = userService.patchUsers(List.of(
+                UserPatchDto.builder().id(databaseUser.getId()).username(username).build()));
+    }
+
+    @Then("$count user in the bulk patch should be updated")
+    public void thenBulkPatchUsersShouldBeUpdated(int count) {
+        assertEquals(count, patchResult.getUpdated(), "Updated count. Results: " + patchResult.getResults());
+    }
+
+    @Then("bulk patch item $index should fail with \"$expectedMessage\"")
+    public void thenBulkPatchItemShouldFail(int index, String expectedMessage) {
+        BatchUpdateResultDto.ItemResult item = patchResult.getResults().get(index);
+        assertFalse(item.isSuccess(), "Bulk patch item " + index + " should fail");
+        assertTrue(item.getMessage().contains(expectedMessage),
+                "Should fail with: " + expectedMessage + ", but got: " + item.getMessage());
+    }
+
+    @When("I look the user up by id twice")
+    public void whenLookUpByIdTwice() {
+        userService.findById(databaseUser.getId()).orElseThrow();
+        cacheHitsBefore = userService.getCacheStats().get("byId").getHitCount();
+        userService.findById(databaseUser.getId()).orElseThrow();
+    }
+
+    @Then("the second lookup should be a cache hit")
+    public void thenSecondLookupShouldBeCacheHit() {
+        assertTrue(userService.getCacheStats().get("byId").getHitCount() > cacheHitsBefore,
+                "Second lookup should be served from the cache");
+    }
+
+    @When("I delete the user")
+    public void whenDeleteUser() {
+        String result = userService.deleteUser(databaseUser.getId());
+        assertTrue(result.contains("successfully"), "Delete should succeed. Result: " + result);
+    }
+
+    @Then("the user should no longer be found by id, username or email")
+    public void thenUserShouldNoLongerBeFound() {
+        assertTrue(userService.findById(databaseUser.getId()).isEmpty(), "Deleted user found by id");
+        assertTrue(userService.findByUsername(databaseUser.getUsername()).isEmpty(), "Deleted user found by username");
+        assertTrue(userService.findByEmail(databaseUser.getEmail()).isEmpty(), "Deleted user found by email");
+    }
+
+    @When("a lookup loads the user while the user's last name is patched to \"$lastName\"")
+    public void whenLookupRacesWithPatch(String lastName) {
+        User before = userRepository.findById(databaseUser.getId()).orElseThrow();
+        userCache.invalidate(before.getId(), before.getUsername(), before.getEmail());
+        // The loader returns the row as read before the patch committed, like a slow reader would
+        userCache.findById(before.getId(), () -> {
+            userService.patchUser(before.getId(), UserPatchDto.builder().lastName(lastName).build());
+            return Optional.of(before);
+        });
+    }
+
+    @Then("the user should have last name \"$lastName\"")
+    public void thenUserShouldHaveLastName(String lastName) {
+        assertEquals(lastName, userService.findById(databaseUser.getId()).orElseThrow().getLastName());
+        assertEquals(lastName, userService.findByUsername(databaseUser.getUsername()).orElseThrow().getLastName());
+    }
+
+    @When("I register the user while recording SQL")
+    public void whenRegisterUserRecordingSql() {
+        SqlStatementRecorder.start();
+        try {
+            whenRegisterUser();
+        } finally {
+            recordedSql = SqlStatementRecorder.stop();
+        }
+    }
+
+    @Then("no uniqueness query should have been issued")
+    public void thenNoUniquenessQuery() {
+        assertEquals(List.of(), uniquenessQueries(), "The membership index should answer a definite miss");
+    }
+
+    @Then("uniqueness queries should have been issued")
+    public void thenUniquenessQueries() {
+        assertFalse(uniquenessQueries().isEmpty(), "A possible hit should be confirmed by a query: " + recordedSql);
+    }
+
+    private List<String> uniquenessQueries() {
+        return recordedSql.stream()
+                .filter(sql -> UNIQUENESS_QUERY.matcher(sql.toLowerCase()).matches())
+                .toList();
+    }
+
+    @Then("the membership index should still report the user's username and email")
+    public void thenMembershipIndexStillReportsUser() {
+        assertTrue(membershipIndex.mightContainUsername(databaseUser.getUsername()), "Username should be reported");
+        assertTrue(membershipIndex.mightContainEmail(databaseUser.getEmail()), "Email should be reported");
+    }
+
+    @When("the membership index is rebuilt while a registration of \"$username\" is in flight")
+    public void whenMembershipIndexRebuiltDuringRegistration(String username) {
+        // The value is added inside a transaction that has not committed when the rebuild scans
+        // the table, as saveNewUser does, and is then rolled back
+        transactionTemplate.executeWithoutResult(tx -> {
+            membershipIndex.add(username, username + "@test.com");
+            CompletableFuture.runAsync(membershipIndex::rebuild).join();
+            tx.setRollbackOnly();
+        });
+    }
+
+    @Then("the membership index should report username \"$username\"")
+    public void thenMembershipIndexReportsUsername(String username) {
+        assertTrue(membershipIndex.mightContainUsername(username), "In-flight username should survive the rebuild");
+    }
+
+    @Then("the membership index should no longer report the user's username and email")
+    public void thenMembershipIndexNoLongerReportsUser() {
+        assertFalse(membershipIndex.mightContainUsername(databaseUser.getUsername()), "Deleted username after rebuild");
+        assertFalse(membershipIndex.mightContainEmail(databaseUser.getEmail()), "Deleted email after rebuild");
+    }
+
+    @Given("an external user API that answers after $millis ms")
+    public void givenSlowExternalApi(long millis) {
+        startExternalApi(UpstreamProfile.builder().latency(Latency.fixed(millis)).build());
+    }
+
+    @Given("an external user API that fails every request with status $status")
+    public void givenFailingExternalApi(int status) {
+        startExternalApi(UpstreamProfile.builder().errorRate(1).errorStatus(status).build());
+    }
+
+    private void startExternalApi(UpstreamProfile profile) {
+        upstream = new JsonPlaceholderStub(profile).start();
+        // A scenario-owned guard without hedging, so every lookup is exactly one upstream request
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExternalCallGuard callGuard = new ExternalCallGuard(meterRegistry, 50, Duration.ofSeconds(2), 80, 50, 20,
+                Duration.ofSeconds(10), 5, 50, false, 0.95, Duration.ofMillis(50), 100);
+        externalUserService = new ExternalUserService(webClient, callGuard, jsonArrayDecoder, meterRegistry,
+                upstream.baseUrl(), Duration.ofSeconds(5), 100, Duration.ofMinutes(10), EXTERNAL_ERROR_TTL);
+    }
+
+    @When("$callers callers look up external user $id at the same time")
+    public void whenCallersLookUpExternalUser(int callers, long id) throws InterruptedException, ExecutionException {
+        List<Callable<ExternalUserDto>> lookups = IntStream.range(0, callers)
+                .<Callable<ExternalUserDto>>mapToObj(caller -> () -> externalUserService.getUserById(id).block())
+                .toList();
+        externalLookups = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (Future<ExternalUserDto> lookup : executor.invokeAll(lookups)) {
+                externalLookups.add(lookup.get());
+            }
+        }
+    }
+
+    @When("a caller looks up external user $id")
+    public void whenCallerLooksUpExternalUser(long id) {
+        externalLookups = new ArrayList<>();
+        externalLookupError = null;
+        try {
+            externalLookups.add(externalUserService.getUserById(id).block());
+        } catch (RuntimeException e) {
+            externalLookupError = e;
+        }
+    }
+
+    @When("a caller checks that external user $id exists")
+    public void whenCallerChecksExternalUserExists(long id) {
+        externalUserExists = externalUserService.userExists(id).block();
+    }
+
+    @When("the external API recovers and the error TTL passes")
+    public void whenExternalApiRecovers() throws InterruptedException {
+        upstream.use(UpstreamProfile.defaults());
+        Thread.sleep(EXTERNAL_ERROR_TTL.plusMillis(100).toMillis());
+    }
+
+    @Then("every caller should receive external user $id")
+    public void thenEveryCallerShouldReceiveExternalUser(long id) {
+        assertFalse(externalLookups.isEmpty(), "Lookups should have answered. Error: " + externalLookupError);
+        externalLookups.forEach(user -> assertEquals(id, user.getId()));
+    }
+
+    @Then("the external user should exist")
+    public void thenExternalUserShouldExist() {
+        assertEquals(Boolean.TRUE, externalUserExists);
+    }
+
+    @Then("the lookup should fail with status $status")
+    public void thenLookupShouldFailWithStatus(int status) {
+        WebClientResponseException error = assertInstanceOf(WebClientResponseException.class, externalLookupError);
+        assertEquals(status, error.getStatusCode().value());
+    }
+
+    @Then("the external API should have received $count requests")
+    @Alias("the external API should have received $count request")
+    public void thenExternalApiShouldHaveReceived(long count) {
+        assertEquals(count, upstream.requestCount(), "Upstream requests");
+    }
+
+    @AfterScenario
+    public void removeScenarioUsers() {
+        scenarioUsers.removeAll(userService);
+        if (upstream != null) {
+            upstream.close();
+            upstream = null;
+        }
+    }
+}
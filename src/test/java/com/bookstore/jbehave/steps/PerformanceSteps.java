@@ -0,0 +1,135 @@
+package com.bookstore.jbehave.steps;
+
+import com.bookstore.jbehave.config.TestConfig;
+import com.bookstore.jbehave.controller.UserController;
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.perf.LoadGenerator;
+import com.bookstore.jbehave.perf.LoadReport;
+import com.bookstore.jbehave.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.jbehave.core.annotations.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ContextConfiguration(classes = TestConfig.class)
+@SpringBootTest
+@Slf4j
+public class PerformanceSteps {
+
+    private static final Path REPORT_DIRECTORY = Path.of("target", "perf");
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserService userService;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, LoadReport> reports = new HashMap<>();
+    private final List<String> registeredUsernames = new ArrayList<>();
+
+    @BeforeScenario
+    public void setUp() {
+        reports.clear();
+        registeredUsernames.clear();
+    }
+
+    @Given("$count users are already registered")
+    public void givenRegisteredUsers(int count) {
+        log.info("Seeding {} users for load test", count);
+        List<UserRegistrationDto> registrations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            registrations.add(nextRegistration("seed"));
+        }
+        int registered = userService.registerUsers(registrations).getRegistered();
+        assertEquals(count, registered, "All seed users should be registered");
+        registrations.forEach(registration -> registeredUsernames.add(registration.getUsername()));
+    }
+
+    @When("$clients concurrent clients register users for $seconds seconds")
+    public void whenClientsRegisterUsers(int clients, int seconds) throws InterruptedException {
+        record("registration", clients, seconds, () -> {
+            ResponseEntity<String> response = userController.registerUser(nextRegistration("load")).block();
+            return response != null && response.getStatusCode().value() == 201;
+        });
+    }
+
+    @When("$clients concurrent clients look up users by username for $seconds seconds")
+    public void whenClientsLookUpUsers(int clients, int seconds) throws InterruptedException {
+        assertFalse(registeredUsernames.isEmpty(), "Lookups need registered users");
+        record("lookup", clients, seconds, () -> {
+            String username = registeredUsernames.get(ThreadLocalRandom.current().nextInt(registeredUsernames.size()));
+            ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+            return userController.getUserByUsername(username, request).getStatusCode().is2xxSuccessful();
+        });
+    }
+
+    @Then("p$percentile $operation latency is below $budget ms")
+    public void thenPercentileLatencyIsBelow(double percentile, String operation, double budget) {
+        LoadReport report = report(operation);
+        double actual = report.percentileMillis(percentile);
+        log.info("p{} {} latency: {} ms (budget {} ms)", percentile, operation, actual, budget);
+        assertTrue(actual < budget, String.format("p%s %s latency %.2f ms exceeds budget of %s ms. %s",
+                percentile, operation, actual, budget, report.summary()));
+    }
+
+    @Then("the $operation error rate is below $percent%")
+    public void thenErrorRateIsBelow(String operation, double percent) {
+        LoadReport report = report(operation);
+        assertTrue(report.errorRatePercent() < percent, String.format("%s error rate %.2f%% exceeds %s%%. %s",
+                operation, report.errorRatePercent(), percent, report.summary()));
+    }
+
+    @Then("$operation throughput is at least $rps requests per second")
+    public void thenThroughputIsAtLeast(String operation, double rps) {
+        LoadReport report = report(operation);
+        assertTrue(report.throughput() >= rps, String.format("%s throughput %.1f req/s is below %s req/s. %s",
+                operation, report.throughput(), rps, report.summary()));
+    }
+
+    private void record(String operation, int clients, int seconds,
+                        Callable<Boolean> call) throws InterruptedException {
+        log.info("Running {} load: {} clients for {} seconds", operation, clients, seconds);
+        LoadReport report = LoadGenerator.run(operation, clients, Duration.ofSeconds(seconds), call);
+        reports.put(operation, report);
+        log.info(report.summary());
+        try {
+            log.info("Latency distribution written to {}", report.writeDistribution(REPORT_DIRECTORY));
+        } catch (Exception e) {
+            log.warn("Could not write latency distribution: {}", e.getMessage());
+        }
+    }
+
+    private LoadReport report(String operation) {
+        LoadReport report = reports.get(operation);
+        assertNotNull(report, "No load was recorded for operation: " + operation);
+        return report;
+    }
+
+    private UserRegistrationDto nextRegistration(String prefix) {
+        String username = prefix + "_" + runId + "_" + sequence.incrementAndGet();
+        return UserRegistrationDto.builder()
+                .username(username)
+                .password("loadtest123")
+                .email(username + "@perf.test")
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.bookstore.jbehave.steps;
+
+import com.bookstore.jbehave.dto.UserRegistrationDto;
+import com.bookstore.jbehave.service.UserService;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tracks users a scenario registers so they can be removed afterwards. Stories share one
+ * application context and run in parallel, so each scenario cleans up its own data.
+ */
+class ScenarioUsers {
+
+    private final Set<String> usernames = new LinkedHashSet<>();
+
+    String register(UserService userService, UserRegistrationDto registration) {
+        track(registration.getUsername());
+        return userService.registerUser(registration);
+    }
+
+    void track(String username) {
+        if (username != null) {
+            usernames.add(username);
+        }
+    }
+
+    void removeAll(UserService userService) {
+        for (String username : usernames) {
+            userService.findByUsername(username)
+                    .ifPresent(user -> userService.deleteUser(user.getId()));
+        }
+        usernames.clear();
+    }
+}
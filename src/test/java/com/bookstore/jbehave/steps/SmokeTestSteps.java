@@ -1,18 +1,33 @@
 package com.bookstore.jbehave.steps;
 
 import com.bookstore.jbehave.controller.UserController;
+import com.bookstore.jbehave.dto.UserPageDto;
 import com.bookstore.jbehave.dto.UserRegistrationDto;
 import com.bookstore.jbehave.model.User;
 import com.bookstore.jbehave.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.jbehave.core.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.bookstore.jbehave.config.TestConfig;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ContextConfiguration(classes = TestConfig.class)
@@ -27,12 +42,21 @@ public class SmokeTestSteps {
     @Autowired
     private UserController userController;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private String healthStatus;
     private UserRegistrationDto testUser;
     private String operationResult;
     private long initialCount;
     private long finalCount;
     private User foundUser;
+    private ResponseEntity<User> apiResponse;
+    private final List<User> registeredUsers = new ArrayList<>();
+    private final List<UserPageDto> pages = new ArrayList<>();
+    private ResponseEntity<UserPageDto> pageResponse;
+    private List<JsonNode> streamedUsers;
+    private final ScenarioUsers scenarioUsers = new ScenarioUsers();
 
     @Given("the user service is running")
     public void givenUserServiceIsRunning() {
@@ -70,7 +94,7 @@ public class SmokeTestSteps {
     @When("I register the user")
     public void whenRegisterUser() {
         log.info("Registering test user: {}", testUser.getUsername());
-        operationResult = userService.registerUser(testUser);
+        operationResult = scenarioUsers.register(userService, testUser);
         log.info("Registration result: {}", operationResult);
     }
 
@@ -99,7 +123,7 @@ public class SmokeTestSteps {
                 .email(username + "@test.com")
                 .build();
         
-        operationResult = userService.registerUser(testUser);
+        operationResult = scenarioUsers.register(userService, testUser);
         assertTrue(operationResult.contains("successfully"));
     }
 
@@ -132,7 +156,7 @@ public class SmokeTestSteps {
                 .email("different@test.com")
                 .build();
         
-        operationResult = userService.registerUser(duplicateUser);
+        operationResult = scenarioUsers.register(userService, duplicateUser);
     }
 
     @Then("the registration should fail with \"$expectedMessage\"")
@@ -157,7 +181,7 @@ public class SmokeTestSteps {
                 .email(username + "@count.com")
                 .build();
         
-        operationResult = userService.registerUser(testUser);
+        operationResult = scenarioUsers.register(userService, testUser);
     }
 
     @Then("the user count should increase by $increment")
@@ -167,4 +191,166 @@ public class SmokeTestSteps {
         assertEquals(initialCount + increment, finalCount, 
                 "User count should increase by " + increment);
     }
-}
\ No newline at end of file
+
+    @When("I fetch the user by username through the API")
+    public void whenFetchUserThroughApi() {
+        log.info("Fetching user through the API: {}", testUser.getUsername());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/username/" + testUser.getUsername());
+        apiResponse = userController.getUserByUsername(testUser.getUsername(),
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+
+    @Then("the response should carry an ETag")
+    public void thenResponseShouldCarryETag() {
+        assertEquals(200, apiResponse.getStatusCode().value());
+        assertNotNull(apiResponse.getHeaders().getETag(), "Response should carry an ETag");
+        assertTrue(apiResponse.getHeaders().getLastModified() > 0, "Response should carry Last-Modified");
+    }
+
+    @When("I fetch the user by username again with that ETag")
+    public void whenFetchUserAgainWithETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/username/" + testUser.getUsername());
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, apiResponse.getHeaders().getETag());
+        log.info("Fetching user again with If-None-Match: {}", apiResponse.getHeaders().getETag());
+        apiResponse = userController.getUserByUsername(testUser.getUsername(),
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+
+    @Then("the response status should be $status")
+    public void thenResponseStatusShouldBe(int status) {
+        assertEquals(status, apiResponse.getStatusCode().value());
+    }
+
+    @Given("I have registered users \"$usernames\"")
+    public void givenRegisteredUsers(String usernames) {
+        for (String username : usernames.split(",")) {
+            givenRegisteredUser(username.trim());
+            registeredUsers.add(userService.findByUsername(testUser.getUsername()).orElseThrow());
+        }
+    }
+
+    @When("I page through all users $limit at a time")
+    public void whenPageThroughAllUsers(int limit) {
+        long after = 0;
+        do {
+            pageResponse = userController.getUsersPage(after, limit);
+            assertEquals(200, pageResponse.getStatusCode().value());
+            UserPageDto page = pageResponse.getBody();
+            assertTrue(page.getUsers().size() <= limit, "Page should hold at most " + limit + " users");
+            pages.add(page);
+            after = page.getNextCursor() == null ? after : page.getNextCursor();
+        } while (pages.get(pages.size() - 1).isHasMore());
+        log.info("Paged through {} pages", pages.size());
+    }
+
+    @Then("every user should appear exactly once in ascending id order")
+    public void thenEveryUserShouldAppearOnce() {
+        List<Long> ids = pages.stream()
+                .flatMap(page -> page.getUsers().stream())
+                .map(User::getId)
+                .toList();
+        assertEquals(userService.countUsers(), ids.size(), "Pages should cover every user");
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1), "Ids should be strictly ascending: " + ids);
+        }
+        registeredUsers.forEach(user -> assertTrue(ids.contains(user.getId()),
+                "Registered user should be paged: " + user.getUsername()));
+    }
+
+    @Then("every page but the last should report more users")
+    public void thenEveryPageButLastShouldReportMore() {
+        for (int i = 0; i < pages.size(); i++) {
+            UserPageDto page = pages.get(i);
+            boolean last = i == pages.size() - 1;
+            assertEquals(!last, page.isHasMore(), "hasMore of page " + i);
+            if (last) {
+                assertNull(page.getNextCursor(), "Last page should have no next cursor");
+            } else {
+                assertEquals(page.getUsers().get(page.getUsers().size() - 1).getId(), page.getNextCursor(),
+                        "Next cursor should be the last id on page " + i);
+            }
+        }
+    }
+
+    @When("I fetch a page of $limit users after the first registered user")
+    public void whenFetchPageAfterFirstRegistered(int limit) {
+        pageResponse = userController.getUsersPage(registeredUsers.get(0).getId(), limit);
+    }
+
+    @When("I fetch a page of $limit users after the last registered user")
+    public void whenFetchPageAfterLastRegistered(int limit) {
+        pageResponse = userController.getUsersPage(registeredUsers.get(registeredUsers.size() - 1).getId(), limit);
+    }
+
+    @When("I fetch a page of $limit users from the start")
+    public void whenFetchPageFromStart(int limit) {
+        pageResponse = userController.getUsersPage(0, limit);
+    }
+
+    @Then("the page should hold the last $count registered users")
+    public void thenPageShouldHoldLastRegistered(int count) {
+        assertEquals(200, pageResponse.getStatusCode().value());
+        List<Long> expected = registeredUsers.subList(registeredUsers.size() - count, registeredUsers.size())
+                .stream()
+                .map(User::getId)
+                .toList();
+        assertEquals(expected, pageResponse.getBody().getUsers().stream().map(User::getId).toList());
+    }
+
+    @Then("the page should be empty")
+    public void thenPageShouldBeEmpty() {
+        assertEquals(200, pageResponse.getStatusCode().value());
+        assertTrue(pageResponse.getBody().getUsers().isEmpty(), "Page should be empty");
+    }
+
+    @Then("the page should report no more users")
+    public void thenPageShouldReportNoMore() {
+        assertFalse(pageResponse.getBody().isHasMore(), "Page should report no more users");
+        assertNull(pageResponse.getBody().getNextCursor(), "Page should have no next cursor");
+    }
+
+    @Then("the page response status should be $status")
+    public void thenPageResponseStatusShouldBe(int status) {
+        assertEquals(status, pageResponse.getStatusCode().value());
+    }
+
+    @When("I stream all users through the API")
+    public void whenStreamAllUsers() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = userController.streamAllUsers();
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        String body = output.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"), "Every NDJSON line should be terminated");
+
+        streamedUsers = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            streamedUsers.add(objectMapper.readTree(line));
+        }
+        log.info("Streamed {} users", streamedUsers.size());
+    }
+
+    @Then("the stream should hold one JSON line per user in ascending id order")
+    public void thenStreamShouldHoldOneLinePerUser() {
+        assertEquals(userService.countUsers(), streamedUsers.size(), "Stream should cover every user");
+        for (int i = 1; i < streamedUsers.size(); i++) {
+            assertTrue(streamedUsers.get(i).get("id").asLong() > streamedUsers.get(i - 1).get("id").asLong(),
+                    "Streamed ids should be strictly ascending");
+        }
+    }
+
+    @Then("the stream should include the registered users")
+    public void thenStreamShouldIncludeRegisteredUsers() {
+        List<String> usernames = streamedUsers.stream().map(user -> user.get("username").asText()).toList();
+        registeredUsers.forEach(user -> assertTrue(usernames.contains(user.getUsername()),
+                "Registered user should be streamed: " + user.getUsername()));
+    }
+
+    @AfterScenario
+    public void removeScenarioUsers() {
+        scenarioUsers.removeAll(userService);
+        registeredUsers.clear();
+        pages.clear();
+    }
+}
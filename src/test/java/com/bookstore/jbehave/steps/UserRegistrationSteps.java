@@ -1,15 +1,19 @@
 package com.bookstore.jbehave.steps;
 
 import com.bookstore.jbehave.config.TestConfig;
+import com.bookstore.jbehave.controller.UserController;
 import com.bookstore.jbehave.dto.UserRegistrationDto;
 import com.bookstore.jbehave.model.User;
+import com.bookstore.jbehave.service.RegistrationLocks;
 import com.bookstore.jbehave.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.jbehave.core.annotations.*;
 import org.jbehave.core.model.ExamplesTable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Map;
@@ -25,10 +29,22 @@ public class UserRegistrationSteps {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private RegistrationLocks registrationLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private UserRegistrationDto currentUser;
     private String registrationResult;
     private User retrievedUser;
     private long initialUserCount;
+    private ResponseEntity<String> apiResponse;
+    private String completionThread;
+    private final ScenarioUsers scenarioUsers = new ScenarioUsers();
 
     @BeforeScenario
     public void setUp() {
@@ -36,6 +52,8 @@ public class UserRegistrationSteps {
         currentUser = null;
         registrationResult = null;
         retrievedUser = null;
+        apiResponse = null;
+        completionThread = null;
     }
 
     @Given("a user with username \"$username\" and password \"$password\"")
@@ -58,6 +76,12 @@ public class UserRegistrationSteps {
         }
     }
 
+    @Given("the user imports external user $externalUserId")
+    public void givenUserImportsExternalUser(long externalUserId) {
+        currentUser.setImportFromExternal(true);
+        currentUser.setExternalUserId(externalUserId);
+    }
+
     @Given("a user with complete details: $userTable")
     public void givenUserWithCompleteDetails(ExamplesTable userTable) {
         log.info("Creating user with complete details from table");
@@ -93,7 +117,7 @@ public class UserRegistrationSteps {
                 .email(username + "@test.com")
                 .build();
         
-        String result = userService.registerUser(user);
+        String result = scenarioUsers.register(userService, user);
         assertTrue(result.contains("successfully"), "Pre-registration should succeed");
     }
 
@@ -107,7 +131,7 @@ public class UserRegistrationSteps {
     public void whenUserRegisters() {
         log.info("Registering user: {}", currentUser.getUsername());
         assertNotNull(currentUser, "Current user should be initialized");
-        registrationResult = userService.registerUser(currentUser);
+        registrationResult = scenarioUsers.register(userService, currentUser);
         log.info("Registration result: {}", registrationResult);
     }
 
@@ -115,7 +139,7 @@ public class UserRegistrationSteps {
     public void whenUserRegistersWithAllDetails() {
         log.info("Registering user with all details: {}", currentUser.getUsername());
         assertNotNull(currentUser, "Current user should be initialized");
-        registrationResult = userService.registerUser(currentUser);
+        registrationResult = scenarioUsers.register(userService, currentUser);
         log.info("Registration result: {}", registrationResult);
     }
 
@@ -124,6 +148,26 @@ public class UserRegistrationSteps {
         whenUserRegisters();
     }
 
+    @When("the user registers through the API")
+    public void whenUserRegistersThroughApi() {
+        log.info("Registering user through the API: {}", currentUser.getUsername());
+        scenarioUsers.track(currentUser.getUsername());
+        apiResponse = userController.registerUser(currentUser)
+                .doOnNext(response -> completionThread = Thread.currentThread().getName())
+                .block();
+        log.info("API registration answered {} on {}", apiResponse.getStatusCode(), completionThread);
+    }
+
+    @When("the user registers through the API while its registration locks are held")
+    public void whenUserRegistersWhileLocksHeld() {
+        // The locks are held by this thread until the transaction ends, so the registration
+        // waits on the scheduler for the lock timeout and is then rejected
+        transactionTemplate.executeWithoutResult(tx -> {
+            registrationLocks.lockUntilCompletion(currentUser.getUsername(), currentUser.getEmail());
+            whenUserRegistersThroughApi();
+        });
+    }
+
     @When("I search for the user by username")
     public void whenSearchUserByUsername() {
         log.info("Searching for user by username");
@@ -146,7 +190,7 @@ public class UserRegistrationSteps {
                 .email("another@test.com")
                 .build();
         
-        registrationResult = userService.registerUser(duplicateUser);
+        registrationResult = scenarioUsers.register(userService, duplicateUser);
         log.info("Duplicate registration result: {}", registrationResult);
     }
 
@@ -159,7 +203,7 @@ public class UserRegistrationSteps {
                 .email(username + "@test.com")
                 .build();
         
-        registrationResult = userService.registerUser(currentUser);
+        registrationResult = scenarioUsers.register(userService, currentUser);
     }
 
     @Then("the registration should be successful")
@@ -185,6 +229,37 @@ public class UserRegistrationSteps {
         thenUserShouldBeStoredInDatabase();
     }
 
+    @Then("the user should not be stored in the system")
+    public void thenUserShouldNotBeStored() {
+        assertTrue(userService.findByUsername(currentUser.getUsername()).isEmpty(), "User should not be stored");
+    }
+
+    @Then("the API should answer with status $status")
+    public void thenApiShouldAnswerWithStatus(int status) {
+        assertEquals(status, apiResponse.getStatusCode().value(), "Response: " + apiResponse.getBody());
+    }
+
+    @Then("the API response should say \"$text\"")
+    public void thenApiResponseShouldSay(String text) {
+        assertTrue(apiResponse.getBody().contains(text), "Response: " + apiResponse.getBody());
+    }
+
+    @Then("the registration should have completed off the calling thread")
+    public void thenRegistrationCompletedOffCallingThread() {
+        assertNotNull(completionThread, "Registration should have answered");
+        assertNotEquals(Thread.currentThread().getName(), completionThread,
+                "Database work should not run on the calling thread");
+    }
+
+    @Then("the user should carry the details of external user $externalUserId")
+    public void thenUserShouldCarryExternalDetails(long externalUserId) {
+        User user = userService.findByUsername(currentUser.getUsername()).orElseThrow();
+        assertEquals(externalUserId, user.getExternalUserId());
+        assertEquals("stub_user" + externalUserId + "@stub.test", user.getEmail());
+        assertEquals("Stub", user.getFirstName());
+        assertEquals("User " + externalUserId, user.getLastName());
+    }
+
     @Then("the user should be found")
     public void thenUserShouldBeFound() {
         log.info("Verifying user was found");
@@ -234,7 +309,7 @@ public class UserRegistrationSteps {
     @AfterScenario
     public void tearDown() {
         log.info("Cleaning up after test scenario");
-        // Cleanup is handled by @Transactional rollback in test configuration
+        scenarioUsers.removeAll(userService);
     }
 }
 
@@ -0,0 +1,184 @@
+package com.bookstore.jbehave.stub;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a streaming read replica: copies the {@code users} table from a primary H2
+ * database into a second H2 database every {@code interval}, so replica routing and the
+ * staleness fallback can be exercised offline.
+ * <p>
+ * The schema is copied once with {@code SCRIPT NODATA}. Each pass then merges every row whose
+ * {@code updated_at} is at or after the previous pass (minus a safety margin for transactions
+ * that committed late), deletes rows that are gone from the primary, and finally records the
+ * primary time the pass started in {@code replication_heartbeat}. The replica's lag is therefore
+ * {@link #LAG_QUERY}. Deletes are found by comparing all ids, which is fine at test sizes only.
+ * {@link #pause()} stops replication to simulate a lagging replica.
+ */
+@Slf4j
+public class H2Replicator implements AutoCloseable {
+
+    public static final String LAG_QUERY =
+            "SELECT DATEDIFF('MILLISECOND', beat, LOCALTIMESTAMP) FROM replication_heartbeat";
+
+    private static final Duration SAFETY_MARGIN = Duration.ofSeconds(2);
+
+    private final String primaryUrl;
+    private final String replicaUrl;
+    private final String username;
+    private final String password;
+    private final Duration interval;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("h2-replicator").daemon().factory());
+
+    private Connection primary;
+    private Connection replica;
+    private Timestamp watermark = new Timestamp(0);
+    private volatile boolean paused;
+
+    public H2Replicator(String primaryUrl, String replicaUrl, String username, String password, Duration interval) {
+        this.primaryUrl = primaryUrl;
+        this.replicaUrl = replicaUrl;
+        this.username = username;
+        this.password = password;
+        this.interval = interval;
+    }
+
+    /**
+     * Copies the schema and starts replicating. The primary schema must already exist.
+     */
+    public H2Replicator start() throws SQLException {
+        primary = DriverManager.getConnection(primaryUrl, username, password);
+        replica = DriverManager.getConnection(replicaUrl, username, password);
+        try (Statement source = primary.createStatement();
+             ResultSet script = source.executeQuery("SCRIPT NODATA");
+             Statement target = replica.createStatement()) {
+            while (script.next()) {
+                String sql = script.getString(1);
+                if ((sql.startsWith("CREATE") || sql.startsWith("ALTER")) && !sql.startsWith("CREATE USER")) {
+                    target.execute(sql);
+                }
+            }
+            target.execute("CREATE TABLE replication_heartbeat(id INT PRIMARY KEY, beat TIMESTAMP)");
+        }
+        executor.scheduleWithFixedDelay(this::replicateQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Replicating {} to {} every {} ms", primaryUrl, replicaUrl, interval.toMillis());
+        return this;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    private void replicateQuietly() {
+        if (paused) {
+            return;
+        }
+        try {
+            replicate();
+        } catch (SQLException e) {
+            log.warn("Replication pass failed: {}", e.getMessage());
+        }
+    }
+
+    private void replicate() throws SQLException {
+        Timestamp beat;
+        try (Statement statement = primary.createStatement();
+             ResultSet result = statement.executeQuery("SELECT LOCALTIMESTAMP")) {
+            result.next();
+            beat = result.getTimestamp(1);
+        }
+
+        int merged = 0;
+        try (PreparedStatement changed = primary.prepareStatement("SELECT * FROM users WHERE updated_at >= ?")) {
+            changed.setTimestamp(1, new Timestamp(watermark.getTime() - SAFETY_MARGIN.toMillis()));
+            try (ResultSet rows = changed.executeQuery()) {
+                ResultSetMetaData columns = rows.getMetaData();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner values = new StringJoiner(", ");
+                for (int c = 1; c <= columns.getColumnCount(); c++) {
+                    names.add(columns.getColumnName(c));
+                    values.add("?");
+                }
+                try (PreparedStatement merge = replica.prepareStatement(
+                        "MERGE INTO users (" + names + ") KEY (id) VALUES (" + values + ")")) {
+                    while (rows.next()) {
+                        for (int c = 1; c <= columns.getColumnCount(); c++) {
+                            merge.setObject(c, rows.getObject(c));
+                        }
+                        merge.addBatch();
+                        merged++;
+                    }
+                    merge.executeBatch();
+                }
+            }
+        }
+
+        Set<Long> live = ids(primary);
+        int deleted = 0;
+        try (PreparedStatement delete = replica.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            for (Long id : ids(replica)) {
+                if (!live.contains(id)) {
+                    delete.setLong(1, id);
+                    delete.addBatch();
+                    deleted++;
+                }
+            }
+            delete.executeBatch();
+        }
+
+        try (PreparedStatement heartbeat = replica.prepareStatement(
+                "MERGE INTO replication_heartbeat (id, beat) KEY (id) VALUES (1, ?)")) {
+            heartbeat.setTimestamp(1, beat);
+            heartbeat.executeUpdate();
+        }
+        watermark = beat;
+        log.debug("Replicated {} changed and {} deleted users", merged, deleted);
+    }
+
+    private static Set<Long> ids(Connection connection) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT id FROM users")) {
+            while (result.next()) {
+                ids.add(result.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
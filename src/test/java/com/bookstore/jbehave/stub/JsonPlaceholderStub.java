@@ -0,0 +1,189 @@
+package com.bookstore.jbehave.stub;
+
+import com.bookstore.jbehave.dto.ExternalUserDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * Local stand-in for the JSONPlaceholder {@code /users} API with programmable latency,
+ * error rate and payload size, so enrichment throughput and timeout behavior can be
+ * measured offline and reproducibly. Point the application at it with
+ * {@code external.api.base-url=<baseUrl()>}.
+ * <p>
+ * Serves {@code GET}/{@code HEAD /users/{id}}, {@code GET /users} and {@code POST /users}.
+ * Delays are applied asynchronously, so slow responses do not hold server threads.
+ * <p>
+ * Can also run standalone on a fixed port, configured through {@link UpstreamProfile#fromSystemProperties()}:
+ * {@code java -Dstub.latency=lognormal:80:0.5 -Dstub.error-rate=0.01 ... JsonPlaceholderStub 8089}.
+ */
+@Slf4j
+public class JsonPlaceholderStub implements AutoCloseable {
+
+    private static final String TRANSFORMER = "jsonplaceholder-stub";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final WireMockServer server;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private volatile UpstreamProfile profile;
+
+    public JsonPlaceholderStub(UpstreamProfile profile) {
+        this(0, profile);
+    }
+
+    public JsonPlaceholderStub(int port, UpstreamProfile profile) {
+        this.profile = profile;
+        this.server = new WireMockServer(wireMockConfig()
+                .port(port)
+                .containerThreads(64)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(32)
+                .disableRequestJournal()
+                .extensions(new Responder()));
+    }
+
+    public JsonPlaceholderStub start() {
+        server.start();
+        server.stubFor(any(urlPathMatching("/users(/\\d+)?"))
+                .willReturn(aResponse().withTransformers(TRANSFORMER)));
+        log.info("JSONPlaceholder stand-in listening on {}", baseUrl());
+        return this;
+    }
+
+    public String baseUrl() {
+        return server.baseUrl();
+    }
+
+    /**
+     * Replaces the behavior for subsequent requests; in-flight requests are unaffected.
+     */
+    public void use(UpstreamProfile profile) {
+        this.profile = profile;
+    }
+
+    public UpstreamProfile profile() {
+        return profile;
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    public long injectedErrorCount() {
+        return injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        JsonPlaceholderStub stub = new JsonPlaceholderStub(port, UpstreamProfile.fromSystemProperties()).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        Thread.currentThread().join();
+    }
+
+    static ExternalUserDto user(long id, int payloadBytes) {
+        ExternalUserDto user = ExternalUserDto.builder()
+                .id(id)
+                .name("Stub User " + id)
+                .username("stub_user" + id)
+                .email("stub_user" + id + "@stub.test")
+                .phone("+1555" + String.format("%07d", id))
+                .website("stub.test")
+                .address(ExternalUserDto.AddressDto.builder()
+                        .street("Stub Street " + id)
+                        .city("Stubville")
+                        .zipcode("00000")
+                        .geo(ExternalUserDto.AddressDto.GeoDto.builder().lat("0").lng("0").build())
+                        .build())
+                .company(ExternalUserDto.CompanyDto.builder()
+                        .name("Stub Inc")
+                        .catchPhrase("Always available")
+                        .bs("")
+                        .build())
+                .build();
+        // Pad the free-text field so the serialized document reaches the requested size
+        int padding = payloadBytes - 400;
+        if (padding > 0) {
+            user.getCompany().setBs("x".repeat(padding));
+        }
+        return user;
+    }
+
+    private final class Responder extends ResponseDefinitionTransformer {
+
+        @Override
+        public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition,
+                                            FileSource files, Parameters parameters) {
+            requests.increment();
+            UpstreamProfile current = profile;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            ResponseDefinitionBuilder response = ResponseDefinitionBuilder.like(responseDefinition).but()
+                    .withFixedDelay((int) Math.max(0, current.getLatency().sampleMillis(random)))
+                    .withHeader("Content-Type", "application/json");
+
+            if (current.getErrorRate() > 0 && random.nextDouble() < current.getErrorRate()) {
+                injectedErrors.increment();
+                return response.withStatus(current.getErrorStatus()).withBody("{}").build();
+            }
+
+            try {
+                String path = request.getUrl().split("\\?", 2)[0];
+                if (path.equals("/users")) {
+                    if (request.getMethod().equals(RequestMethod.POST)) {
+                        ExternalUserDto created = MAPPER.readValue(request.getBodyAsString(), ExternalUserDto.class);
+                        created.setId((long) current.getUsers() + 1);
+                        return response.withStatus(201).withBody(MAPPER.writeValueAsString(created)).build();
+                    }
+                    List<ExternalUserDto> users = new ArrayList<>(current.getUsers());
+                    for (long id = 1; id <= current.getUsers(); id++) {
+                        users.add(user(id, current.getPayloadBytes()));
+                    }
+                    return response.withStatus(200).withBody(MAPPER.writeValueAsString(users)).build();
+                }
+
+                long id = Long.parseLong(path.substring("/users/".length()));
+                if (id < 1 || id > current.getUsers()) {
+                    return response.withStatus(404).withBody("{}").build();
+                }
+                return response.withStatus(200)
+                        .withBody(MAPPER.writeValueAsString(user(id, current.getPayloadBytes())))
+                        .build();
+            } catch (JsonProcessingException | NumberFormatException e) {
+                return response.withStatus(400).withBody("{}").build();
+            }
+        }
+
+        @Override
+        public String getName() {
+            return TRANSFORMER;
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.jbehave.stub;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Response delay distribution for the upstream stand-in.
+ */
+@FunctionalInterface
+public interface Latency {
+
+    long sampleMillis(Random random);
+
+    static Latency none() {
+        return random -> 0;
+    }
+
+    static Latency fixed(long millis) {
+        return random -> millis;
+    }
+
+    static Latency uniform(long minMillis, long maxMillis) {
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /**
+     * Long-tailed delays typical of real services: half of the samples fall below the median.
+     */
+    static Latency logNormal(double medianMillis, double sigma) {
+        return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Mostly {@code usual} delays with a fraction of {@code slow} ones, e.g. GC pauses or a cold cache.
+     */
+    static Latency bimodal(Latency usual, Latency slow, double slowFraction) {
+        return random -> random.nextDouble() < slowFraction ? slow.sampleMillis(random) : usual.sampleMillis(random);
+    }
+
+    /**
+     * Parses {@code none}, {@code fixed:200}, {@code uniform:50:150} or {@code lognormal:80:0.5}.
+     */
+    static Latency parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        return switch (parts[0]) {
+            case "none" -> none();
+            case "fixed" -> fixed(Long.parseLong(parts[1]));
+            case "uniform" -> uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            case "lognormal" -> logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+}
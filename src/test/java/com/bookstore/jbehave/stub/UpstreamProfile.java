@@ -0,0 +1,51 @@
+package com.bookstore.jbehave.stub;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Behavior of the upstream stand-in: how long responses take, how often they fail and
+ * how large they are. Profiles are immutable; swap them at runtime with
+ * {@link JsonPlaceholderStub#use(UpstreamProfile)}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class UpstreamProfile {
+
+    /** Number of users the upstream knows; larger ids answer 404. */
+    @Builder.Default
+    int users = 10;
+
+    @Builder.Default
+    Latency latency = Latency.none();
+
+    /** Fraction of requests, between 0 and 1, answered with {@link #errorStatus}. */
+    @Builder.Default
+    double errorRate = 0;
+
+    @Builder.Default
+    int errorStatus = 503;
+
+    /** Approximate size of each user document; padding is added to reach it. */
+    @Builder.Default
+    int payloadBytes = 0;
+
+    public static UpstreamProfile defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Reads {@code stub.users}, {@code stub.latency}, {@code stub.error-rate},
+     * {@code stub.error-status} and {@code stub.payload-bytes} system properties.
+     */
+    public static UpstreamProfile fromSystemProperties() {
+        UpstreamProfile defaults = defaults();
+        return builder()
+                .users(Integer.getInteger("stub.users", defaults.users))
+                .latency(Latency.parse(System.getProperty("stub.latency", "none")))
+                .errorRate(Double.parseDouble(System.getProperty("stub.error-rate", String.valueOf(defaults.errorRate))))
+                .errorStatus(Integer.getInteger("stub.error-status", defaults.errorStatus))
+                .payloadBytes(Integer.getInteger("stub.payload-bytes", defaults.payloadBytes))
+                .build();
+    }
+}